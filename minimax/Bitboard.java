@@ -0,0 +1,159 @@
+package minimax;
+
+
+/**
+ *      Bitboard Class describes the grid of the game as bitmasks. Block (x, y)
+ *      of the grid is bit (x * Board.M + y) of a long, called its square, so
+ *      grids of up to 64 blocks are supported.
+ *
+ *      All the potential moves of every square are precomputed once, so that
+ *      checking a move is a single mask operation instead of bounds checks
+ *      and array loads.
+ */
+final class Bitboard {
+
+    /* Total number of blocks (squares) in the grid */
+    static final int SQUARES = Board.N * Board.M;
+
+    /* Mask with a bit set for every square of the grid */
+    static final long FULL = SQUARES == 64 ? -1L : (1L << SQUARES) - 1;
+
+    /*
+        The 8 directions of the potential moves as (X, Y) steps. Each direction is
+        a potential move of 1 block and, if that block is free, a move of 2 blocks.
+    */
+    static final int[][] DIRECTIONS = {
+        {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+        {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    /*
+        Maximum number of potential moves of a square. Move m is (m % 2 + 1) blocks
+        long in direction m / 2, so every 2 block move follows its 1 block move.
+    */
+    static final int MOVES = 2 * DIRECTIONS.length;
+
+    /* Destination square of every move of every square or -1 if it is outside the grid */
+    static final int[][] DESTINATION = new int[SQUARES][MOVES];
+
+    /*
+        Mask of the destination and the crossed block of every move of every square.
+        A move is valid when all of these blocks are free. Moves outside the grid
+        have an empty mask.
+    */
+    static final long[][] PATH = new long[SQUARES][MOVES];
+
+    /* Mask of the blocks that are 1 block away from every square */
+    static final long[] NEIGHBOURS = new long[SQUARES];
+
+
+    static {
+
+        if (SQUARES > 64)
+            throw new IllegalStateException("The grid cannot have more than 64 blocks");
+
+        for (int square = 0; square < SQUARES; square++) {
+
+            int x = getX(square);
+            int y = getY(square);
+
+            for (int move = 0; move < MOVES; move++) {
+
+                int[] direction = DIRECTIONS[move / 2];
+                int step = move % 2 + 1;
+                int destinationX = x + direction[0] * step;
+                int destinationY = y + direction[1] * step;
+
+                if (isInside(destinationX, destinationY)) {
+                    DESTINATION[square][move] = square(destinationX, destinationY);
+                    PATH[square][move] = bit(square(x + direction[0], y + direction[1])) |
+                                            bit(DESTINATION[square][move]);
+                }
+                else {
+                    DESTINATION[square][move] = -1;
+                    PATH[square][move] = 0L;
+                }
+            }
+
+            /* Even moves are the 1 block moves */
+            for (int move = 0; move < MOVES; move += 2)
+                NEIGHBOURS[square] |= PATH[square][move];
+        }
+    }
+
+
+    private Bitboard() {
+    }
+
+
+    /**
+     *      Checks whether the given coordinates are within the grid's limit.
+     *
+     *      @param x:  X coordinate.
+     *      @param y:  Y coordinate.
+     *      @return true if the coordinates are inside the grid else false.
+     */
+    static boolean isInside(int x, int y) {
+
+        return (x < Board.N && x >= 0 &&
+                    y < Board.M && y >= 0);
+    }
+
+
+    /**
+     *      @param x:  X coordinate.
+     *      @param y:  Y coordinate.
+     *      @return the square of the given coordinates.
+     */
+    static int square(int x, int y) {
+        return x * Board.M + y;
+    }
+
+
+    /**
+     *      @param square: a square of the grid.
+     *      @return the X coordinate of the square.
+     */
+    static int getX(int square) {
+        return square / Board.M;
+    }
+
+
+    /**
+     *      @param square: a square of the grid.
+     *      @return the Y coordinate of the square.
+     */
+    static int getY(int square) {
+        return square % Board.M;
+    }
+
+
+    /**
+     *      @param square: a square of the grid.
+     *      @return a mask with only the bit of the square set.
+     */
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+
+    /**
+     *      @param square: the square of the player or the AI.
+     *      @param occupied: mask of the blocks that are not free.
+     *      @return the mask of the destinations of the valid moves of the square.
+     */
+    static long getDestinations(int square, long occupied) {
+
+        long destinations = 0;
+
+        for (int move = 0; move < MOVES; move++) {
+
+            long path = PATH[square][move];
+
+            if (path != 0 && (path & occupied) == 0)
+                destinations |= bit(DESTINATION[square][move]);
+        }
+
+        return destinations;
+    }
+}
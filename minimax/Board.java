@@ -9,6 +9,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import javax.swing.JPanel;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JTextField;
@@ -141,9 +142,22 @@ public class Board extends JPanel{
     final int defaultPlayerY = M-1;
     final int defaultBlackBlocksCount = 3;
 
+    /* Default time the A.I. is allowed to think for each move (milliseconds) */
+    static final long DEFAULT_THINK_TIME = 1000;
+
+    /* By default the A.I. thinks on every available processor */
+    final int defaultThreads = Runtime.getRuntime().availableProcessors();
+
+    /* How the A.I. estimates the states beyond the depth it simulated, the first one is the default */
+    static final String TERRITORY_EVALUATION = "Territory";
+    static final String MOBILITY_EVALUATION = "Mobility";
+
     private int compStartX, compStartY;
     private int playerStartX, playerStartY;
     private int startUnavBlocks;
+    private long thinkTime = DEFAULT_THINK_TIME;
+    private int threads = defaultThreads;
+    private String evaluation = TERRITORY_EVALUATION;
 
     
 
@@ -206,6 +220,18 @@ public class Board extends JPanel{
         return this.startUnavBlocks;
     }
 
+    public long getThinkTime() {
+        return this.thinkTime;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public String getEvaluation() {
+        return this.evaluation;
+    }
+
 
     /**
      * Sets the frame with the Board to visible
@@ -238,21 +264,21 @@ public class Board extends JPanel{
                 button.setEnabled(false);
 
                 /* and update according to the status in the grid */
-                if (blockStatus == Logic.FREE_BLOCK) {
+                if (blockStatus == Position.FREE_BLOCK) {
                     button.setDefaultText();
                 }
 
-                else if (blockStatus == Logic.UNAVAILABLE_BLOCK) {
+                else if (blockStatus == Position.UNAVAILABLE_BLOCK) {
                     button.setBackground(new Color(45, 45, 55, 255));
                     button.setText(" ");
                 }
 
-                else if (blockStatus == Logic.AI) {
+                else if (blockStatus == Position.AI) {
                     button.setText("A.I.");
                     button.setBackground(new Color(100, 150, 250, 255));
                 }
 
-                else if (blockStatus == Logic.PLAYER) {
+                else if (blockStatus == Position.PLAYER) {
                     button.setText("YOU");
                     button.setBackground(new Color(200, 75, 100, 255));
                 }
@@ -423,6 +449,14 @@ public class Board extends JPanel{
         JTextField inputPlayerX = new JTextField();
         JTextField inputPlayerY = new JTextField();
 
+        /* Time the A.I. is allowed to think for each move and on how many threads */
+        JTextField inputThinkTime = new JTextField();
+        JTextField inputThreads = new JTextField();
+
+        /* How the A.I. estimates the states beyond the depth it simulated */
+        JComboBox<String> inputEvaluation = new JComboBox<String>(
+                new String[] { TERRITORY_EVALUATION, MOBILITY_EVALUATION });
+
 
         Object[] inputFields = {
             "\nPlease enter start options" +
@@ -433,6 +467,9 @@ public class Board extends JPanel{
             "Computer Y:", inputCompY,
             "Player X:", inputPlayerX,
             "Player Y:", inputPlayerY,
+            "\nA.I. Think Time (ms):", inputThinkTime,
+            "A.I. Threads:", inputThreads,
+            "A.I. Evaluation:", inputEvaluation,
         };
 
         Object[] optionsText = { "Start", "Randomize" };
@@ -483,6 +520,26 @@ public class Board extends JPanel{
             catch (Exception e) {
                 playerStartY = defaultPlayerY;
             }
+
+            try {
+                thinkTime = Long.parseLong(inputThinkTime.getText());
+            }
+            catch (Exception e) {
+                thinkTime = DEFAULT_THINK_TIME;
+            }
+
+            try {
+                threads = Integer.parseInt(inputThreads.getText());
+            }
+            catch (Exception e) {
+                threads = defaultThreads;
+            }
+
+            evaluation = (String) inputEvaluation.getSelectedItem();
+
+            /* The A.I. needs some time and at least one thread to think */
+            if (thinkTime <= 0) thinkTime = DEFAULT_THINK_TIME;
+            if (threads <= 0) threads = defaultThreads;
              
         }
 
@@ -0,0 +1,130 @@
+package minimax;
+
+
+/**
+ *      Endgame Class solves the states where the AI and the player have been walled
+ *      off from each other. Neither of them can reach a block the other one can, so
+ *      their moves no longer affect each other and each of them simply makes as many
+ *      moves as possible inside their own region. The side to move wins if it can
+ *      make more moves than the other side, since the other side runs out of moves first.
+ *
+ *      The most moves a side can make is the longest path through the free blocks of
+ *      its region, which is found by a single player search. A path only depends on
+ *      the square it starts from and the blocks still free, so the lengths found are
+ *      kept in a table shared by every simulation of the Engine. Every Engine has its
+ *      own Endgame, so the games of different Engines never share a table.
+ *
+ *      The table works like the TranspositionTable: a single array of longs where every
+ *      slot is the free blocks XORed with the packed entry followed by the entry, so
+ *      it can be shared by the threads of a parallel simulation without any locks.
+ *      An entry packs the length of the path in bits 0-7 and the square in bits 8-15.
+ *      Bit 16 is always set so that an entry is never 0.
+ */
+final class Endgame {
+
+    /* Regions larger than this are not solved, their paths take too long to find */
+    static final int MAX_REGION = 18;
+
+    /* The table has 2^TABLE_BITS slots, taking 2^(TABLE_BITS + 4) bytes of RAM */
+    private static final int TABLE_BITS = 18;
+
+    private final long[] slots = new long[2 << TABLE_BITS];
+
+
+    /**
+     *      Finds every free block a square can reach with any number of moves. A 2 block
+     *      move crosses a free neighbouring block, so it is enough to spread through the
+     *      free neighbouring blocks.
+     *
+     *      @param square: the square of the player or the AI.
+     *      @param free: mask of the free blocks.
+     *      @return the mask of the blocks reachable from the square.
+     */
+    static long getRegion(int square, long free) {
+
+        long region = 0;
+        long frontier = Bitboard.NEIGHBOURS[square] & free;
+
+        while (frontier != 0) {
+
+            long next = 0;
+            region |= frontier;
+
+            for (long bits = frontier; bits != 0; bits &= bits - 1)
+                next |= Bitboard.NEIGHBOURS[Long.numberOfTrailingZeros(bits)];
+
+            frontier = next & free & ~region;
+        }
+
+        return region;
+    }
+
+
+    /**
+     *      Solves the current state of the board if the AI and the player are separated
+     *      and their regions are small enough.
+     *
+     *      @param board: the board of the simulation.
+     *      @return the value of the state (WIN or -WIN) or UNKNOWN if it cannot be solved.
+     */
+    int solve(SearchBoard board) {
+
+        long free = ~board.getOccupied() & Bitboard.FULL;
+        long compRegion = getRegion(board.comp, free);
+        long playerRegion = getRegion(board.player, free);
+
+        if ((compRegion & playerRegion) != 0 ||
+                Long.bitCount(compRegion) > MAX_REGION || Long.bitCount(playerRegion) > MAX_REGION) {
+            return Engine.UNKNOWN;
+        }
+
+        int compMoves = getLongestPath(board.comp, compRegion);
+        int playerMoves = getLongestPath(board.player, playerRegion);
+
+        /* The side to move needs more moves than the other side to win */
+        if (board.turn == Position.MAX)
+            return compMoves > playerMoves ? Engine.WIN : -Engine.WIN;
+        else
+            return playerMoves > compMoves ? -Engine.WIN : Engine.WIN;
+    }
+
+
+    /**
+     *      Finds the most moves that can be made from a square through the given free blocks.
+     *      Every move uses up at least its destination block, so no path is longer than the
+     *      number of free blocks and the search stops as soon as it finds such a path.
+     *
+     *      @param square: the square the path starts from.
+     *      @param free: mask of the free blocks the path may go through.
+     *      @return the length of the longest path.
+     */
+    int getLongestPath(int square, long free) {
+
+        int slot = (int) ((free * 0x9E3779B97F4A7C15L + square) >>> (64 - TABLE_BITS)) << 1;
+        long entry = this.slots[slot + 1];
+
+        if (entry != 0 && (this.slots[slot] ^ entry) == free && (int) (entry >>> 8 & 0xFF) == square)
+            return (int) entry & 0xFF;
+
+        int longest = 0;
+        int limit = Long.bitCount(free);
+
+        for (int move = 0; move < Bitboard.MOVES && longest < limit; move++) {
+
+            long path = Bitboard.PATH[square][move];
+
+            /* Skip invalid moves and moves that cannot lead to a longer path */
+            if (path == 0 || (path & ~free) != 0 || Long.bitCount(free & ~path) < longest)
+                continue;
+
+            longest = Math.max(longest,
+                        1 + getLongestPath(Bitboard.DESTINATION[square][move], free & ~path));
+        }
+
+        entry = longest | ((long) square << 8) | (1L << 16);
+        this.slots[slot] = free ^ entry;
+        this.slots[slot + 1] = entry;
+
+        return longest;
+    }
+}
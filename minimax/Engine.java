@@ -0,0 +1,327 @@
+package minimax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ *      Engine Class decides the best move of a Position. It holds everything a game needs
+ *      between moves: the transposition table, the Endgame table, the threads the minimax tree
+ *      is simulated on and the Ponderer. It has no GUI and no static state, so any number of
+ *      games can be played in the same JVM, each with its own Engine.
+ *
+ *      An Engine must be used by one thread at a time. Both sides can be played by the
+ *      same Engine, but the transposition table and the pondering work best for one.
+ *
+ *      Internally the side to move is always simulated as MAX (AI). The rules are the same
+ *      for both sides, so a position where MIN (player) is playing is mirrored first.
+ */
+public final class Engine implements AutoCloseable {
+
+    /* 
+        Values of the states. A state won by MAX is worth WIN and a state won by MIN -WIN.
+        Any value in between is the Evaluator's estimate of a state whose outcome is beyond 
+        the depth of the simulation, where UNKNOWN means that neither side is ahead.
+    */
+    public static final int WIN = 10000;
+    public static final int UNKNOWN = 0;
+
+    /* 2^20 slots take 16MB of RAM */
+    private static final int TABLE_BITS = 20;
+
+    /* Results of simulated states, shared by all the simulations of the game */
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+
+    /* Longest paths of the separated states, shared by all the simulations of the game */
+    private final Endgame endgame = new Endgame();
+
+    /* Estimates the states at the depth of the simulation */
+    private final Evaluator evaluator;
+
+    /*
+        Threads the minimax tree is simulated on. The first move of the current state
+        is simulated on its own and then the rest of the moves are simulated in parallel.
+    */
+    private final ForkJoinPool pool;
+
+    /* Keeps the Engine thinking during the other side's turn, null when not pondering */
+    private Ponderer ponderer;
+
+
+    /**
+     *      Engine constructor
+     *
+     *      @param threads: the number of threads the minimax tree is simulated on.
+     */
+    public Engine(int threads) {
+        this(threads, new TerritoryEvaluator());
+    }
+
+
+    /**
+     *      Engine constructor
+     *
+     *      @param threads: the number of threads the minimax tree is simulated on.
+     *      @param evaluator: estimates the states at the depth of the simulation,
+     *                        a TerritoryEvaluator or a MobilityEvaluator.
+     */
+    public Engine(int threads, Evaluator evaluator) {
+
+        this.pool = new ForkJoinPool(threads);
+        this.evaluator = evaluator;
+    }
+
+
+    /**
+     *      @param value: the value of a state.
+     *      @return true if the outcome of the state is certain rather than estimated.
+     */
+    public static boolean isCertain(int value) {
+        return value >= WIN || value <= -WIN;
+    }
+
+
+    /**
+     *      Decides the best move of the side to move.
+     *
+     *      If the Engine was pondering and the position is one it pondered, the pondered
+     *      result is returned right away when it is certain or already took as long as the
+     *      limits allow. Otherwise the simulation continues from it.
+     *
+     *      @param position: the position, the side to move must have at least one valid move.
+     *      @param limits: how long the Engine may think.
+     *      @return the best move found and its value for the side to move.
+     */
+    public SearchResult bestMove(Position position, SearchLimits limits) {
+
+        if (position.isGameOver())
+            throw new IllegalArgumentException("The side to move has no valid moves");
+
+        Position root = position.getTurn() == Position.MAX ? position : position.mirror();
+        SearchResult result = stopPondering(Zobrist.hash(root));
+
+        if (result != null && (result.isCertain() || result.getDepth() >= limits.getMaxDepth() ||
+                (limits.hasTimeLimit() && result.getTime() >= limits.getThinkTime()))) {
+            return result;
+        }
+
+        SearchBudget budget = limits.hasTimeLimit() ?
+                new SearchBudget(limits.getThinkTime() - (result == null ? 0 : result.getTime())) :
+                new SearchBudget();
+
+        /* Start the simulation */
+        this.table.newSearch();
+
+        return simulate(root, budget, limits.getMaxDepth(), result);
+    }
+
+
+    /**
+     *      Starts thinking about the Engine's next move during the other side's turn, until
+     *      bestMove or stopPondering is called.
+     *
+     *      @param position: the position after the Engine moved, the other side is playing.
+     */
+    public void ponder(Position position) {
+
+        stopPondering();
+
+        if (position.isGameOver())
+            return;
+
+        /* The Engine is simulated as MAX, so the other side must be MIN */
+        this.ponderer = new Ponderer(position.getTurn() == Position.MIN ? position : position.mirror(),
+                                        this, this.table);
+        this.table.newSearch();
+        this.ponderer.start();
+    }
+
+
+    /**
+     *      Stops pondering, if the Engine is pondering, and drops the pondered results.
+     */
+    public void stopPondering() {
+        stopPondering(0);
+    }
+
+
+    /**
+     *      The counters of the transposition table, for the last call of bestMove
+     *      (or of ponder, if the pondered result was returned right away).
+     *
+     *      @return the states found in the transposition table.
+     */
+    public long getTableHits() {
+        return this.table.getHits();
+    }
+
+
+    /**
+     *      @return the states not found in the transposition table (see getTableHits()).
+     */
+    public long getTableMisses() {
+        return this.table.getMisses();
+    }
+
+
+    /**
+     *      @return the results saved in the transposition table (see getTableHits()).
+     */
+    public long getTableStores() {
+        return this.table.getStores();
+    }
+
+
+    /**
+     *      Stops pondering and shuts the threads of the Engine down.
+     */
+    @Override
+    public void close() {
+
+        stopPondering();
+        this.pool.shutdown();
+    }
+
+
+    /**
+     *      @param hash: the Zobrist hash of the position to get the pondered result of.
+     *      @return the pondered result of the position or null if it was not pondered.
+     */
+    private SearchResult stopPondering(long hash) {
+
+        if (this.ponderer == null)
+            return null;
+
+        SearchResult result = this.ponderer.stop(hash);
+        this.ponderer = null;
+
+        return result;
+    }
+
+
+    /**
+     *      Simulates the minimax tree of a position where MAX is playing with iterative
+     *      deepening. Each simulation goes one move deeper than the previous one and starts
+     *      with the previous best move, which together with the transposition table makes
+     *      the deeper simulation cheaper. When the budget runs out the unfinished simulation
+     *      is dropped and the result of the last finished one is returned.
+     *
+     *      @param root: the position, MAX must have at least one valid move.
+     *      @param budget: how long the simulation is allowed to run.
+     *      @param maxDepth: the deepest simulation allowed.
+     *      @param previous: the result of an earlier simulation of the same position to
+     *                       continue from or null to start from scratch.
+     *      @return the result of the deepest finished simulation.
+     */
+    SearchResult simulate(Position root, SearchBudget budget, int maxDepth, SearchResult previous) {
+
+        long start = System.nanoTime();
+        long previousTime = previous == null ? 0 : previous.getTime();
+        long previousNodes = previous == null ? 0 : previous.getSimulatedNodes();
+        int free = Long.bitCount(~root.getOccupied() & Bitboard.FULL);
+
+        /* Any valid move will do if not even the first simulation finishes in time */
+        SearchResult result = previous != null ? previous :
+                                    new SearchResult(getFirstValidMove(root), UNKNOWN, 0, 0, 0);
+
+        /* No game lasts more moves than the free blocks */
+        for (int depth = result.getDepth() + 1;
+                depth <= Math.min(free, maxDepth) && !result.isCertain(); depth++) {
+
+            SearchResult iteration = simulateDepth(root, depth, result.getMove(), budget);
+
+            if (iteration == null)
+                break;
+
+            result = iteration;
+        }
+
+        return new SearchResult(result.getMove(), result.getValue(), result.getDepth(),
+                                    previousTime + (System.nanoTime() - start) / 1000000,
+                                    previousNodes + budget.getSimulatedNodes());
+    }
+
+
+    /**
+     *      Simulates the minimax tree of a position where MAX is playing to the given depth.
+     *
+     *      The first move is simulated on the current thread to get a good value to compare
+     *      the rest of the moves with, and then the rest of the moves are simulated in parallel
+     *      on the ForkJoinPool.
+     *
+     *      @param root: the position, MAX must have at least one valid move.
+     *      @param depth: the depth to simulate the tree to.
+     *      @param firstMove: the valid move to simulate first, usually the best move so far.
+     *      @param budget: how long the simulation is allowed to run.
+     *      @return the result of the simulation, with every state simulated with the budget so far,
+     *              or null if the budget ran out before it finished.
+     */
+    SearchResult simulateDepth(Position root, int depth, int firstMove, SearchBudget budget) {
+
+        Searcher searcher = new Searcher(this.table, this.endgame, this.evaluator, budget);
+        SearchBoard searchBoard = searcher.getBoard();
+        List<RootMoveTask> tasks = new ArrayList<RootMoveTask>();
+        int bestMove = firstMove;
+        int value;
+
+        /*
+            The children of the current state are always simulated, even if the state
+            is in the transposition table, since a best move is needed.
+        */
+        searchBoard.set(root);
+        value = searcher.simulateMove(firstMove, depth, -WIN, WIN);
+        searcher.reportSimulatedNodes();
+
+        /* Unless the first move wins, simulate the rest of them in parallel */
+        if (value < WIN && !budget.isStopped()) {
+
+            AtomicInteger sharedAlpha = new AtomicInteger(value);
+
+            for (int move = 0; move < Bitboard.MOVES; move++) {
+
+                if (move != firstMove && root.isValidMove(move)) {
+                    tasks.add(new RootMoveTask(root, move, depth, sharedAlpha,
+                                this.table, this.endgame, this.evaluator, budget));
+                }
+            }
+
+            for (RootMoveTask task : tasks)
+                this.pool.execute(task);
+
+            /*
+                Only a value greater than the alpha a move was simulated with is its
+                real value. Ties are resolved in favour of the earlier move.
+            */
+            for (RootMoveTask task : tasks) {
+
+                int taskValue = task.join();
+
+                if (taskValue > task.getAlpha() && taskValue > value) {
+                    value = taskValue;
+                    bestMove = task.getMove();
+                }
+            }
+        }
+
+        if (budget.isStopped())
+            return null;
+
+        return new SearchResult(bestMove, value, depth, 0, budget.getSimulatedNodes());
+    }
+
+
+    /**
+     *      @param position: the position.
+     *      @return the first valid move of the side to move or -1 if there is none.
+     */
+    static int getFirstValidMove(Position position) {
+
+        for (int move = 0; move < Bitboard.MOVES; move++) {
+            if (position.isValidMove(move)) return move;
+        }
+
+        return -1;
+    }
+}
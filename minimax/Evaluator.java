@@ -0,0 +1,23 @@
+package minimax;
+
+
+/**
+ *      Evaluator Interface estimates the value of a state whose outcome is beyond
+ *      the depth of the simulation. A good estimate lets a shallow simulation tell
+ *      promising moves from bad ones instead of treating them all as UNKNOWN.
+ *
+ *      It is public so that an Engine can be given one of the evaluators of this
+ *      package. The board of the simulation is internal to the package, so it can
+ *      only be implemented here.
+ */
+public interface Evaluator {
+
+    /**
+     *      Estimates the current state of the board, which is not game over.
+     *
+     *      @param board: the board of the simulation.
+     *      @return the estimate, greater the better the state is for MAX (AI). It must
+     *              be strictly between -WIN and WIN as it is not a certain outcome.
+     */
+    int evaluate(SearchBoard board);
+}
@@ -0,0 +1,19 @@
+package minimax;
+
+
+/**
+ *      MobilityEvaluator Class estimates a state by the number of valid moves of the
+ *      AI minus the number of valid moves of the player. The side with fewer moves
+ *      is closer to having none left.
+ */
+public final class MobilityEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(SearchBoard board) {
+
+        long occupied = board.getOccupied();
+
+        return Long.bitCount(Bitboard.getDestinations(board.comp, occupied)) -
+                    Long.bitCount(Bitboard.getDestinations(board.player, occupied));
+    }
+}
@@ -0,0 +1,162 @@
+package minimax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ *      Ponderer Class keeps the Engine thinking while the other side decides on a move.
+ *      On a background thread it simulates the position that every potential move of
+ *      the other side would lead to, as if it were already the Engine's turn. The results
+ *      are kept by the Zobrist hash of those positions, so once the other side moves the
+ *      Engine can play the pondered move right away or continue from it.
+ *
+ *      Like the rest of the Engine, the Ponderer simulates the Engine as MAX, so the
+ *      other side is MIN.
+ *
+ *      All the positions are simulated one move deeper at a time, in turns, starting
+ *      with the move the transposition table expects. Whatever is simulated
+ *      also ends up in the transposition table, so even a move that was pondered
+ *      only briefly is faster to simulate afterwards.
+ */
+final class Ponderer implements Runnable {
+
+    /* The position after the Engine moved, MIN (the other side) is playing */
+    private final Position position;
+
+    private final Engine engine;
+    private final TranspositionTable table;
+
+    /* The pondering has no deadline, it is stopped once the other side moves */
+    private final SearchBudget budget = new SearchBudget();
+
+    /* Results of the positions the potential moves lead to, by Zobrist hash */
+    private final Map<Long, SearchResult> results = new ConcurrentHashMap<Long, SearchResult>();
+
+    private final Thread thread = new Thread(this, "Ponderer");
+
+
+    /**
+     *      Ponderer constructor
+     *
+     *      @param position: the position after the Engine moved, MIN is playing.
+     *      @param engine: the Engine that simulates the positions.
+     *      @param table: the transposition table of the Engine.
+     */
+    Ponderer(Position position, Engine engine, TranspositionTable table) {
+
+        this.position = position;
+        this.engine = engine;
+        this.table = table;
+
+        /* The pondering must not keep the game running once it is closed */
+        this.thread.setDaemon(true);
+    }
+
+
+    /**
+     *      Starts pondering on the background thread.
+     */
+    void start() {
+        this.thread.start();
+    }
+
+
+    /**
+     *      Stops pondering and waits for the background thread to finish.
+     *
+     *      @param hash: the Zobrist hash of the position the other side's move led to.
+     *      @return the result pondered for that position or null if it was not pondered.
+     */
+    SearchResult stop(long hash) {
+
+        this.budget.stop();
+
+        try {
+            this.thread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return this.results.get(hash);
+    }
+
+
+    @Override
+    public void run() {
+
+        List<Position> replies = getReplies();
+        boolean simulated = true;
+
+        /* Simulate every position one move deeper until all of them are certain */
+        for (int depth = 1; simulated; depth++) {
+
+            simulated = false;
+
+            for (Position reply : replies) {
+
+                long hash = Zobrist.hash(reply);
+                SearchResult previous = this.results.get(hash);
+                long start = System.nanoTime();
+                long simulatedNodes = this.budget.getSimulatedNodes();
+
+                /* No game lasts more moves than the free blocks */
+                if ((previous != null && previous.isCertain()) ||
+                        depth > Long.bitCount(~reply.getOccupied() & Bitboard.FULL)) {
+                    continue;
+                }
+
+                SearchResult result = this.engine.simulateDepth(reply, depth,
+                        previous == null ? Engine.getFirstValidMove(reply) : previous.getMove(),
+                        this.budget);
+
+                if (result == null)
+                    return;
+
+                long time = (System.nanoTime() - start) / 1000000 +
+                                (previous == null ? 0 : previous.getTime());
+
+                /* The budget is shared by all the positions */
+                simulatedNodes = result.getSimulatedNodes() - simulatedNodes +
+                                    (previous == null ? 0 : previous.getSimulatedNodes());
+
+                this.results.put(hash, new SearchResult(result.getMove(), result.getValue(),
+                        depth, time, simulatedNodes));
+                simulated = true;
+            }
+        }
+    }
+
+
+    /**
+     *      Creates the positions the potential moves of the other side lead to, except the
+     *      ones where the Engine has no moves left. The move stored in the transposition
+     *      table, which is the move the Engine expects, comes first.
+     *
+     *      @return the positions to ponder.
+     */
+    private List<Position> getReplies() {
+
+        List<Position> replies = new ArrayList<Position>();
+        long entry = this.table.probe(Zobrist.hash(this.position));
+        int expectedMove = entry == 0 ? -1 : TranspositionTable.getMove(entry);
+
+        for (int i = -1; i < Bitboard.MOVES; i++) {
+
+            int move = i < 0 ? expectedMove : i;
+
+            if (move < 0 || (i >= 0 && move == expectedMove) || !this.position.isValidMove(move))
+                continue;
+
+            Position reply = this.position.play(move);
+
+            if (!reply.isGameOver())
+                replies.add(reply);
+        }
+
+        return replies;
+    }
+}
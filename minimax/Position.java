@@ -0,0 +1,253 @@
+package minimax;
+
+
+/**
+ *      Position Class describes a state of the game: the unavailable blocks, the squares
+ *      of the AI and the player and who is playing. It is the root of the minimax tree,
+ *      which is never stored but simulated on a SearchBoard. A Position cannot be changed,
+ *      making a move creates a new one, so it can be passed between threads and games freely.
+ */
+public final class Position {
+
+    /* Who is playing? MAX is the AI and MIN is the player */
+    public static final int MAX = 1;
+    public static final int MIN = -1;
+
+    /* Constants that describe the state/occupant of a block in the grid of getGrid() */
+    public static final int FREE_BLOCK = 0;
+    public static final int UNAVAILABLE_BLOCK = 1;
+    public static final int AI = 2;
+    public static final int PLAYER = 3;
+
+    /*
+        Bitmask used to describe the unavailable blocks of the state.
+        Every block of the grid is a bit (square) as described in the Bitboard Class.
+        Blocks that are neither unavailable nor occupied by the player or the AI are free.
+    */
+    private final long blocked;
+
+    /* player and AI squares in the grid */
+    private final int comp;
+    private final int player;
+
+    /* Who is playing? (MIN or MAX) */
+    private final int turn;
+
+
+    /**
+     *      Position constructor
+     *
+     *      @param blocked: mask of the unavailable blocks, bit square(x, y) is set for block (x, y).
+     *      @param comp: the square of the AI (see square()).
+     *      @param player: the square of the player (see square()).
+     *      @param turn: Who is playing? (MIN or MAX)
+     */
+    public Position(long blocked, int comp, int player, int turn) {
+
+        if (comp < 0 || comp >= Bitboard.SQUARES || player < 0 || player >= Bitboard.SQUARES ||
+                comp == player || (blocked & ~Bitboard.FULL) != 0 ||
+                (blocked & (Bitboard.bit(comp) | Bitboard.bit(player))) != 0) {
+            throw new IllegalArgumentException("Invalid position");
+        }
+
+        if (turn != MAX && turn != MIN)
+            throw new IllegalArgumentException("Invalid turn: " + turn);
+
+        this.blocked = blocked;
+        this.comp = comp;
+        this.player = player;
+        this.turn = turn;
+    }
+
+
+    /**
+     *      @param x:  X coordinate.
+     *      @param y:  Y coordinate.
+     *      @return the square of the block, as used by the masks and the squares of a Position.
+     */
+    public static int square(int x, int y) {
+
+        if (!Bitboard.isInside(x, y))
+            throw new IllegalArgumentException("Invalid block: " + x + ", " + y);
+
+        return Bitboard.square(x, y);
+    }
+
+
+    /**
+     *      @param square: a square of the grid.
+     *      @return the X coordinate of the square.
+     */
+    public static int getX(int square) {
+        return Bitboard.getX(square);
+    }
+
+
+    /**
+     *      @param square: a square of the grid.
+     *      @return the Y coordinate of the square.
+     */
+    public static int getY(int square) {
+        return Bitboard.getY(square);
+    }
+
+
+    public long getBlocked() {
+        return this.blocked;
+    }
+
+    public int getComp() {
+        return this.comp;
+    }
+
+    public int getPlayer() {
+        return this.player;
+    }
+
+    public int getTurn() {
+        return this.turn;
+    }
+
+
+    /**
+     * @return a mask of every block that is not free.
+     */
+    public long getOccupied() {
+        return this.blocked | Bitboard.bit(this.comp) | Bitboard.bit(this.player);
+    }
+
+
+    /**
+     * @return the square of the side to move.
+     */
+    public int getMoverSquare() {
+        return this.turn == MAX ? this.comp : this.player;
+    }
+
+
+    /**
+     *      Checks whether the side to move has any available moves. Every move starts
+     *      with a 1 block move so it is enough to check the neighbouring blocks.
+     *
+     *      @return true for game over else false.
+     */
+    public boolean isGameOver() {
+        return (Bitboard.NEIGHBOURS[getMoverSquare()] & ~getOccupied()) == 0;
+    }
+
+
+    /**
+     *      Checks whether a move of the side to move is valid. The destination
+     *      and any crossed block must be free.
+     *
+     *      @param move: index of the move in the tables of the Bitboard Class.
+     *      @return true for a valid move else false.
+     */
+    public boolean isValidMove(int move) {
+
+        if (move < 0 || move >= Bitboard.MOVES)
+            return false;
+
+        long path = Bitboard.PATH[getMoverSquare()][move];
+
+        return path != 0 && (path & getOccupied()) == 0;
+    }
+
+
+    /**
+     *      Finds the move of the side to move that leads to the given block.
+     *
+     *      @param x:  X coordinate of the destination.
+     *      @param y:  Y coordinate of the destination.
+     *      @return the index of the valid move or -1 if there is none.
+     */
+    public int getMove(int x, int y) {
+
+        for (int move = 0; move < Bitboard.MOVES; move++) {
+
+            if (isValidMove(move) && Bitboard.DESTINATION[getMoverSquare()][move] == Bitboard.square(x, y))
+                return move;
+        }
+
+        return -1;
+    }
+
+
+    /**
+     *      @param move: index of a move of the side to move, e.g. SearchResult.getMove().
+     *      @return the square the move leads to or -1 if the move is not valid.
+     */
+    public int getDestination(int move) {
+
+        if (!isValidMove(move))
+            return -1;
+
+        return Bitboard.DESTINATION[getMoverSquare()][move];
+    }
+
+
+    /**
+     *      Makes a move of the side to move. The origin block and any crossed block
+     *      become unavailable and it is the other side's turn to play.
+     *
+     *      @param move: index of a valid move in the tables of the Bitboard Class.
+     *      @return the position after the move.
+     */
+    public Position play(int move) {
+
+        if (!isValidMove(move))
+            throw new IllegalArgumentException("Invalid move: " + move);
+
+        int origin = getMoverSquare();
+        int destination = Bitboard.DESTINATION[origin][move];
+        long blocked = this.blocked | Bitboard.bit(origin) |
+                            (Bitboard.PATH[origin][move] & ~Bitboard.bit(destination));
+
+        if (this.turn == MAX)
+            return new Position(blocked, destination, this.player, MIN);
+        else
+            return new Position(blocked, this.comp, destination, MAX);
+    }
+
+
+    /**
+     *      The rules are the same for both sides, so a position where MIN (player) is
+     *      playing can be simulated as the position where the AI and the player have
+     *      swapped squares and MAX (AI) is playing. The moves are the same.
+     *
+     *      @return the position with the squares of the AI and the player swapped and
+     *              the other side playing.
+     */
+    public Position mirror() {
+        return new Position(this.blocked, this.player, this.comp, -this.turn);
+    }
+
+
+    /**
+     * Creates the array used by the GUI to describe the state.
+     * Each position in the array has a value that corresponds to one of
+     * the following:
+     *     Player's position
+     *     AI position
+     *     Free block
+     *     Unavailable block
+     * These values are defined as constants in this Class.
+     *
+     * @return the grid of the state.
+     */
+    public int[][] getGrid() {
+
+        int[][] grid = new int[Board.N][Board.M];
+
+        for (int square = 0; square < Bitboard.SQUARES; square++) {
+
+            if ((this.blocked & Bitboard.bit(square)) != 0)
+                grid[getX(square)][getY(square)] = UNAVAILABLE_BLOCK;
+        }
+
+        grid[getX(this.comp)][getY(this.comp)] = AI;
+        grid[getX(this.player)][getY(this.player)] = PLAYER;
+
+        return grid;
+    }
+}
@@ -0,0 +1,87 @@
+package minimax;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ *      RootMoveTask Class simulates one of the moves of the position being simulated
+ *      on a thread of a ForkJoinPool. The tasks of the same simulation share the best 
+ *      value found so far (alpha), which every task reads when it starts so that it 
+ *      can cut off the children that cannot beat it.
+ */
+final class RootMoveTask extends RecursiveTask<Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Position root;
+    private final int move;
+    private final int depth;
+    private final AtomicInteger sharedAlpha;
+    private final TranspositionTable table;
+    private final Endgame endgame;
+    private final Evaluator evaluator;
+    private final SearchBudget budget;
+
+    /* The alpha the move was simulated with */
+    private int alpha;
+
+
+    /**
+     *      RootMoveTask constructor
+     *
+     *      @param root: the position being simulated, MAX is playing.
+     *      @param move: index of a valid move in the tables of the Bitboard Class.
+     *      @param depth: how many moves to simulate, including the given move.
+     *      @param sharedAlpha: the best value found so far among the moves of the state.
+     *      @param table: the shared transposition table.
+     *      @param endgame: the shared Endgame table.
+     *      @param evaluator: estimates the states at the depth of the simulation.
+     *      @param budget: the shared budget of the simulation.
+     */
+    RootMoveTask(Position root, int move, int depth, AtomicInteger sharedAlpha,
+            TranspositionTable table, Endgame endgame, Evaluator evaluator, SearchBudget budget) {
+
+        this.root = root;
+        this.move = move;
+        this.depth = depth;
+        this.sharedAlpha = sharedAlpha;
+        this.table = table;
+        this.endgame = endgame;
+        this.evaluator = evaluator;
+        this.budget = budget;
+    }
+
+
+    int getMove() {
+        return this.move;
+    }
+
+
+    /**
+     *      @return the alpha the move was simulated with. A value that is not greater
+     *              than it is only an upper bound of the value of the move.
+     */
+    int getAlpha() {
+        return this.alpha;
+    }
+
+
+    @Override
+    protected Integer compute() {
+
+        Searcher searcher = new Searcher(this.table, this.endgame, this.evaluator, this.budget);
+        int value;
+
+        searcher.getBoard().set(this.root);
+        this.alpha = this.sharedAlpha.get();
+
+        value = searcher.simulateMove(this.move, this.depth, this.alpha, Engine.WIN);
+        searcher.reportSimulatedNodes();
+
+        if (!this.budget.isStopped())
+            this.sharedAlpha.accumulateAndGet(value, Math::max);
+
+        return value;
+    }
+}
@@ -0,0 +1,148 @@
+package minimax;
+
+
+/**
+ *      SearchBoard Class describes the state the minimax simulation is currently at.
+ *      Instead of creating a new state for every child, the simulation makes a move
+ *      on the board, simulates the child and then unmakes the move. Only what is
+ *      needed to unmake each move is kept, so the memory used is proportional to
+ *      the depth of the simulation rather than the number of simulated states.
+ */
+final class SearchBoard {
+
+    /* Every move makes at least one block unavailable, so no game is longer than this */
+    static final int MAX_PLY = Bitboard.SQUARES;
+
+    /* Bitmask of the unavailable blocks (see Bitboard Class) */
+    long blocked;
+
+    /* player and AI squares in the grid */
+    int comp;
+    int player;
+
+    /* Zobrist hash of the board and the side to move (see Zobrist Class) */
+    long hash;
+
+    /* Who is playing? (MIN or MAX) */
+    int turn;
+
+    /* Number of moves made since the board was set */
+    int ply;
+
+    /* What is needed to unmake the moves made so far */
+    private final long[] blockedHistory = new long[MAX_PLY];
+    private final int[] squareHistory = new int[MAX_PLY];
+    private final long[] hashHistory = new long[MAX_PLY];
+
+
+    /**
+     *      Sets the board to the given position.
+     *
+     *      @param position: the position.
+     */
+    void set(Position position) {
+
+        this.blocked = position.getBlocked();
+        this.comp = position.getComp();
+        this.player = position.getPlayer();
+        this.turn = position.getTurn();
+        this.hash = Zobrist.hash(position);
+        this.ply = 0;
+    }
+
+
+    /**
+     * @return a mask of every block that is not free.
+     */
+    long getOccupied() {
+        return this.blocked | Bitboard.bit(this.comp) | Bitboard.bit(this.player);
+    }
+
+
+    /**
+     * @return the square of the side to move.
+     */
+    int getMoverSquare() {
+        return this.turn == Position.MAX ? this.comp : this.player;
+    }
+
+
+    /**
+     *      Checks whether the side to move has any available moves. Every move starts
+     *      with a 1 block move so it is enough to check the neighbouring blocks.
+     *
+     *      @return true for game over else false.
+     */
+    boolean isGameOver() {
+        return (Bitboard.NEIGHBOURS[getMoverSquare()] & ~getOccupied()) == 0;
+    }
+
+
+    /**
+     *      Checks whether a move of the side to move is valid. The destination
+     *      and any crossed block must be free.
+     *
+     *      @param move: index of the move in the tables of the Bitboard Class.
+     *      @return true for a valid move else false.
+     */
+    boolean isValidMove(int move) {
+
+        long path = Bitboard.PATH[getMoverSquare()][move];
+
+        return path != 0 && (path & getOccupied()) == 0;
+    }
+
+
+    /**
+     *      Makes a valid move of the side to move. The origin block and any crossed
+     *      block become unavailable and it is the other side's turn to play.
+     *
+     *      @param move: index of the move in the tables of the Bitboard Class.
+     */
+    void makeMove(int move) {
+
+        int origin = getMoverSquare();
+        int destination = Bitboard.DESTINATION[origin][move];
+
+        this.blockedHistory[this.ply] = this.blocked;
+        this.squareHistory[this.ply] = origin;
+        this.hashHistory[this.ply] = this.hash;
+        this.ply++;
+
+        /* Everything on the path except the destination is crossed */
+        this.blocked |= Bitboard.bit(origin) |
+                            (Bitboard.PATH[origin][move] & ~Bitboard.bit(destination));
+
+        if (this.turn == Position.MAX) {
+            this.hash ^= Zobrist.AI_MOVES[origin][move];
+            this.comp = destination;
+            this.turn = Position.MIN;
+        }
+        else {
+            this.hash ^= Zobrist.PLAYER_MOVES[origin][move];
+            this.player = destination;
+            this.turn = Position.MAX;
+        }
+    }
+
+
+    /**
+     *      Unmakes the last move made.
+     */
+    void unmakeMove() {
+
+        this.ply--;
+        this.blocked = this.blockedHistory[this.ply];
+        this.hash = this.hashHistory[this.ply];
+
+        /* The side that made the move is the one to play again */
+        if (this.turn == Position.MIN) {
+            this.comp = this.squareHistory[this.ply];
+            this.turn = Position.MAX;
+        }
+        else {
+            this.player = this.squareHistory[this.ply];
+            this.turn = Position.MIN;
+        }
+    }
+}
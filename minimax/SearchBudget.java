@@ -0,0 +1,85 @@
+package minimax;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ *      SearchBudget Class describes how long a simulation of the minimax tree is
+ *      allowed to run. It is shared by all the threads that take part in the same
+ *      simulation, so once one of them finds that the deadline has passed all of
+ *      them stop. It also counts the simulated states of all the threads.
+ */
+final class SearchBudget {
+
+    /* When the simulation has to stop (System.nanoTime()) */
+    private final long deadline;
+    private final boolean hasDeadline;
+
+    private volatile boolean stopped;
+
+    /* Total of simulated states (see SearchResult.getSimulatedNodes()) */
+    private final LongAdder simulatedNodes = new LongAdder();
+
+
+    /**
+     *      SearchBudget constructor
+     *
+     *      @param thinkTime: the time the simulation is allowed to run in milliseconds.
+     */
+    SearchBudget(long thinkTime) {
+        this.deadline = System.nanoTime() + thinkTime * 1000000L;
+        this.hasDeadline = true;
+    }
+
+
+    /**
+     *      SearchBudget constructor for a simulation without a deadline that runs
+     *      until it is stopped.
+     */
+    SearchBudget() {
+        this.deadline = 0;
+        this.hasDeadline = false;
+    }
+
+
+    /**
+     *      Stops the simulation if the deadline has passed.
+     */
+    void checkDeadline() {
+
+        if (this.hasDeadline && System.nanoTime() > this.deadline)
+            this.stopped = true;
+    }
+
+
+    /**
+     *      Stops the simulation, e.g. from another thread.
+     */
+    void stop() {
+        this.stopped = true;
+    }
+
+
+    /**
+     *      @return true once the simulation has to stop.
+     */
+    boolean isStopped() {
+        return this.stopped;
+    }
+
+
+    /**
+     *      @param count: number of states simulated by a thread since it last reported.
+     */
+    void addSimulatedNodes(long count) {
+        this.simulatedNodes.add(count);
+    }
+
+
+    /**
+     *      @return the total of simulated states reported so far.
+     */
+    long getSimulatedNodes() {
+        return this.simulatedNodes.sum();
+    }
+}
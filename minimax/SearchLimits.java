@@ -0,0 +1,57 @@
+package minimax;
+
+
+/**
+ *      SearchLimits Class describes how long the Engine may think about a move: for
+ *      how long and how many moves deep. The Engine stops at whichever limit comes first.
+ */
+public final class SearchLimits {
+
+    /* No game lasts more moves than there are blocks */
+    public static final int NO_DEPTH_LIMIT = Bitboard.SQUARES;
+
+    /* Think time that never runs out */
+    public static final long NO_TIME_LIMIT = 0;
+
+    private final long thinkTime;
+    private final int maxDepth;
+
+
+    /**
+     *      SearchLimits constructor
+     *
+     *      @param thinkTime: the time the Engine may think in milliseconds or NO_TIME_LIMIT.
+     *      @param maxDepth: the most moves the Engine may simulate or NO_DEPTH_LIMIT.
+     */
+    public SearchLimits(long thinkTime, int maxDepth) {
+
+        if (thinkTime < 0 || maxDepth < 1)
+            throw new IllegalArgumentException("Invalid search limits");
+
+        this.thinkTime = thinkTime;
+        this.maxDepth = Math.min(maxDepth, NO_DEPTH_LIMIT);
+    }
+
+
+    /**
+     *      SearchLimits constructor for a search limited by time only.
+     *
+     *      @param thinkTime: the time the Engine may think in milliseconds.
+     */
+    public SearchLimits(long thinkTime) {
+        this(thinkTime, NO_DEPTH_LIMIT);
+    }
+
+
+    public long getThinkTime() {
+        return this.thinkTime;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public boolean hasTimeLimit() {
+        return this.thinkTime != NO_TIME_LIMIT;
+    }
+}
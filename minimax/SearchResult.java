@@ -0,0 +1,64 @@
+package minimax;
+
+
+/**
+ *      SearchResult Class describes the outcome of simulating the minimax tree of
+ *      a position: the best move found, its value for the side to move, the depth
+ *      the tree was fully simulated to, how long it took and how many states were simulated.
+ */
+public final class SearchResult {
+
+    private final int move;
+    private final int value;
+    private final int depth;
+    private final long time;
+    private final long simulatedNodes;
+
+
+    /**
+     *      SearchResult constructor
+     *
+     *      @param move: index of the best move (see Position.getDestination()).
+     *      @param value: the value of the best move for the side to move (see Engine.WIN).
+     *      @param depth: the depth the tree was fully simulated to.
+     *      @param time: the time spent simulating in milliseconds.
+     *      @param simulatedNodes: the number of states simulated.
+     */
+    SearchResult(int move, int value, int depth, long time, long simulatedNodes) {
+
+        this.move = move;
+        this.value = value;
+        this.depth = depth;
+        this.time = time;
+        this.simulatedNodes = simulatedNodes;
+    }
+
+
+    public int getMove() {
+        return this.move;
+    }
+
+    public int getValue() {
+        return this.value;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getTime() {
+        return this.time;
+    }
+
+    public long getSimulatedNodes() {
+        return this.simulatedNodes;
+    }
+
+
+    /**
+     *      @return true if the outcome is certain, so simulating deeper would not change it.
+     */
+    public boolean isCertain() {
+        return Engine.isCertain(this.value);
+    }
+}
@@ -0,0 +1,271 @@
+package minimax;
+
+
+/**
+ *      Searcher Class simulates the minimax tree on its own SearchBoard. Every thread
+ *      that takes part in a simulation has its own Searcher, while the transposition
+ *      table, the Endgame table, the evaluator and the budget are shared by all of them.
+ */
+final class Searcher {
+
+    /* The budget is only checked once every this many simulated states */
+    private static final int BUDGET_CHECK_INTERVAL = 1024;
+
+    /* The board the minimax tree is simulated on by making and unmaking moves */
+    private final SearchBoard board = new SearchBoard();
+
+    private final TranspositionTable table;
+    private final Endgame endgame;
+    private final Evaluator evaluator;
+    private final SearchBudget budget;
+
+    /* Simulated states not yet reported to the budget */
+    private int simulatedNodes;
+
+
+    /**
+     *      Searcher constructor
+     *
+     *      @param table: the transposition table shared by all the Searchers.
+     *      @param endgame: solves the separated states, shared by all the Searchers.
+     *      @param evaluator: estimates the states at the depth of the simulation.
+     *      @param budget: the budget of the simulation shared by all the Searchers.
+     */
+    Searcher(TranspositionTable table, Endgame endgame, Evaluator evaluator, SearchBudget budget) {
+
+        this.table = table;
+        this.endgame = endgame;
+        this.evaluator = evaluator;
+        this.budget = budget;
+    }
+
+
+    /**
+     *      @return the board the Searcher simulates on.
+     */
+    SearchBoard getBoard() {
+        return this.board;
+    }
+
+
+    /**
+     *      Simulates a single child of the state the board was set to.
+     *
+     *      @param move: index of a valid move in the tables of the Bitboard Class.
+     *      @param depth: how many more moves to simulate, including the given move.
+     *      @param alpha: the best value MAX is already guaranteed.
+     *      @param beta: the best value MIN is already guaranteed.
+     *      @return the value of the child.
+     */
+    int simulateMove(int move, int depth, int alpha, int beta) {
+
+        int value;
+
+        this.board.makeMove(move);
+        countSimulatedNode();
+        value = simulateMinimaxTree(depth - 1, alpha, beta);
+        this.board.unmakeMove();
+
+        return value;
+    }
+
+
+    /**
+     *      Reports the simulated states that have not been reported yet to the budget.
+     */
+    void reportSimulatedNodes() {
+
+        this.budget.addSimulatedNodes(this.simulatedNodes);
+        this.simulatedNodes = 0;
+    }
+
+
+    /**
+     *      Counts a simulated state and every BUDGET_CHECK_INTERVAL states reports
+     *      them and checks whether the deadline has passed.
+     */
+    private void countSimulatedNode() {
+
+        if (++this.simulatedNodes == BUDGET_CHECK_INTERVAL) {
+            reportSimulatedNodes();
+            this.budget.checkDeadline();
+        }
+    }
+
+
+    /**
+     *      Main method responsible for simulating the minimax tree. The children of the 
+     *      current state of the search board are simulated using recursion. The recursion 
+     *      stops when a leaf child is reached or the given depth has been simulated, in which
+     *      case the value of the state is estimated by the evaluator. The simulation also 
+     *      stops as soon as the budget runs out.
+     * 
+     *      Once the AI and the player have been walled off from each other the state is
+     *      solved by the Endgame Class instead, even beyond the given depth.
+     * 
+     *      The simulation uses alpha-beta pruning. The window [alpha, beta] holds the values
+     *      MAX and MIN are already guaranteed elsewhere in the tree, so as soon as a child 
+     *      proves that the node falls outside of it the remaining children are not simulated.
+     * 
+     *      States that have already been simulated are looked up in the transposition table.
+     *      If the stored value settles the state within the window it is returned right away,
+     *      otherwise the stored best move is simulated first.
+     * 
+     *      @param depth: how many more moves to simulate.
+     *      @param alpha: the best value MAX is already guaranteed.
+     *      @param beta: the best value MIN is already guaranteed.
+     *      @return the value on the tree determined as best
+     */
+    int simulateMinimaxTree(int depth, int alpha, int beta) {
+
+        int turn = this.board.turn;
+
+        /* First check for a leaf child */
+        if (this.board.isGameOver()) {
+            return turn == Position.MAX ? -Engine.WIN : Engine.WIN;
+        }
+
+        /* Then check if the simulation has to stop */
+        if (this.budget.isStopped())
+            return Engine.UNKNOWN;
+
+        /* At the depth of the simulation a separated state can still be solved, otherwise it is estimated */
+        if (depth == 0) {
+
+            int endgameValue = this.endgame.solve(this.board);
+
+            return endgameValue != Engine.UNKNOWN ? endgameValue : this.evaluator.evaluate(this.board);
+        }
+
+        /* Then check if the state has already been simulated deep enough */
+        long entry = this.table.probe(this.board.hash);
+        int hashMove = -1;
+
+        if (entry != 0 && TranspositionTable.getDepth(entry) >= depth) {
+
+            int value = TranspositionTable.getValue(entry);
+            int bound = TranspositionTable.getBound(entry);
+
+            if (bound == TranspositionTable.EXACT ||
+                    (bound == TranspositionTable.LOWER && value >= beta) ||
+                    (bound == TranspositionTable.UPPER && value <= alpha)) {
+                return value;
+            }
+
+        }
+
+        /* Once the AI and the player are separated the outcome can be found directly */
+        int endgameValue = this.endgame.solve(this.board);
+
+        if (endgameValue != Engine.UNKNOWN)
+            return endgameValue;
+
+        /* Even a shallower entry has a best move worth simulating first */
+        if (entry != 0)
+            hashMove = TranspositionTable.getMove(entry);
+
+
+        /* 
+            If the code gets here we can proceed with the simulation of the children.
+            The best value among them is found while they are simulated so that the simulation
+            can stop early once the rest of the children cannot change the outcome.
+        */
+        return simulateNodeChildren(depth, alpha, beta, hashMove);
+    }
+
+
+
+    /**
+     *      Simulates the children of the current state of the search board. Checks the 
+     *      potential moves and if a move is valid makes it, simulates the child and 
+     *      unmakes it.
+     * 
+     *      For a move to be valid the destination block and any crossed block must 
+     *      be free. Potential moves are 1 or 2 blocks in the following directions:
+     * 
+     *      DOWN, 
+     *      UP, 
+     *      RIGHT,
+     *      LEFT, 
+     *      DOWN RIGHT,
+     *      DOWN LEFT, 
+     *      UP RIGHT,
+     *      UP LEFT
+     * 
+     *      Resulting in a total of 16 potential moves.
+     * 
+     *      Children are simulated one at a time and the alpha-beta window is narrowed 
+     *      after each one. Once alpha meets beta the node is proven and no more 
+     *      children are simulated (cutoff). The result is saved in the transposition table.
+     * 
+     *      @param depth: how many more moves to simulate.
+     *      @param alpha: the best value MAX is already guaranteed.
+     *      @param beta: the best value MIN is already guaranteed.
+     *      @param hashMove: move to simulate first or -1 for none.
+     *      @return the value on the tree determined as best
+     */
+    int simulateNodeChildren(int depth, int alpha, int beta, int hashMove) {
+
+        int turn = this.board.turn;
+        int move;
+        int value;
+        int bestValue = 0;
+        int bestMove = -1;
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int bound;
+        int free = Long.bitCount(~this.board.getOccupied() & Bitboard.FULL);
+
+        /* Check potential moves and simulate children, starting with the hash move */
+        for (int i = -1; i < Bitboard.MOVES; i++) {
+
+            move = i < 0 ? hashMove : i;
+
+            if (move < 0 || (i >= 0 && move == hashMove))
+                continue;
+
+            if (!this.board.isValidMove(move))
+                continue;
+
+            /* Get the child's tree value by running another simulation.
+                Simulating this child's children until a leaf child is reached. */
+            this.board.makeMove(move);
+            countSimulatedNode();
+            value = simulateMinimaxTree(depth - 1, alpha, beta);
+            this.board.unmakeMove();
+
+            /* The value of an unfinished simulation cannot be trusted */
+            if (this.budget.isStopped())
+                return Engine.UNKNOWN;
+
+            /* Greater than for MAX, lesser than for MIN */
+            if (bestMove < 0 || 
+                    (turn == Position.MAX && value > bestValue) || 
+                    (turn == Position.MIN && value < bestValue)) {
+                bestValue = value;
+                bestMove = move;
+            }
+
+            /* Narrow the window and stop as soon as the node is proven */
+            if (turn == Position.MAX) alpha = Math.max(alpha, value);
+            else beta = Math.min(beta, value);
+
+            if (alpha >= beta) 
+                break;
+        }
+
+        /* 
+            Save the result. A certain outcome holds no matter how deep the state is 
+            simulated, so it is saved as if every remaining move had been simulated, 
+            which is at most the number of free blocks.
+        */
+        if (bestValue <= originalAlpha) bound = TranspositionTable.UPPER;
+        else if (bestValue >= originalBeta) bound = TranspositionTable.LOWER;
+        else bound = TranspositionTable.EXACT;
+
+        this.table.store(this.board.hash, bestValue, bound, 
+                Engine.isCertain(bestValue) ? Math.max(depth, free) : depth, bestMove);
+
+        return bestValue;
+    }
+}
@@ -0,0 +1,67 @@
+package minimax;
+
+
+/**
+ *      TerritoryEvaluator Class estimates a state by the free blocks the AI can reach
+ *      before the player minus the free blocks the player can reach before the AI
+ *      (a Voronoi partition of the grid). Blocks both of them reach with the same number
+ *      of moves belong to neither. The side with more blocks of its own is likely to be
+ *      the one able to keep moving for longer.
+ *
+ *      The moves are counted on the current state, as if no more blocks became unavailable.
+ *      The mobility of each side breaks ties between states with the same territory.
+ */
+public final class TerritoryEvaluator implements Evaluator {
+
+    /* A block of territory outweighs any difference in mobility */
+    private static final int BLOCK_VALUE = Bitboard.MOVES + 1;
+
+
+    @Override
+    public int evaluate(SearchBoard board) {
+
+        long occupied = board.getOccupied();
+        long reached = occupied;
+        long compTerritory = 0;
+        long playerTerritory = 0;
+        long compFrontier = Bitboard.bit(board.comp);
+        long playerFrontier = Bitboard.bit(board.player);
+        int mobility = 0;
+
+        /* Spread both sides one move at a time until neither of them reaches a new block */
+        for (int moves = 1; (compFrontier | playerFrontier) != 0; moves++) {
+
+            long compNext = spread(compFrontier, occupied) & ~reached;
+            long playerNext = spread(playerFrontier, occupied) & ~reached;
+            long contested = compNext & playerNext;
+
+            if (moves == 1)
+                mobility = Long.bitCount(compNext) - Long.bitCount(playerNext);
+
+            compTerritory |= compNext & ~contested;
+            playerTerritory |= playerNext & ~contested;
+            reached |= compNext | playerNext;
+
+            compFrontier = compNext;
+            playerFrontier = playerNext;
+        }
+
+        return (Long.bitCount(compTerritory) - Long.bitCount(playerTerritory)) * BLOCK_VALUE + mobility;
+    }
+
+
+    /**
+     *      @param squares: mask of the squares to move from.
+     *      @param occupied: mask of the blocks that are not free.
+     *      @return the mask of the destinations of the valid moves of all the squares.
+     */
+    private static long spread(long squares, long occupied) {
+
+        long destinations = 0;
+
+        for (long bits = squares; bits != 0; bits &= bits - 1)
+            destinations |= Bitboard.getDestinations(Long.numberOfTrailingZeros(bits), occupied);
+
+        return destinations;
+    }
+}
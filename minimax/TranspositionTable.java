@@ -0,0 +1,161 @@
+package minimax;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ *      TranspositionTable Class stores the results of simulated states so that a
+ *      state reached again through a different order of moves is not simulated
+ *      twice. The table has a fixed size and is a single array of longs where every
+ *      slot is the Zobrist hash of a state followed by its packed entry, so that
+ *      a lookup touches a single cache line.
+ *
+ *      The table is shared by the threads of a parallel simulation without any locks.
+ *      The first long of a slot is the hash XORed with the entry, so a slot that was 
+ *      half written by one thread while another one read it does not match the hash
+ *      and is treated as a miss.
+ *
+ *      An entry packs the following fields:
+ *          bits  0-15: value of the state
+ *          bits 16-17: bound type of the value (LOWER, UPPER or EXACT)
+ *          bits 18-25: depth the state was simulated to
+ *          bits 26-30: best move plus one (0 for no move)
+ *          bits 32-39: generation (search) the entry was stored in
+ *
+ *      Every hash has a single slot. An entry replaces the one in its slot when the
+ *      slot is empty, holds the same state, was stored by an older search or has
+ *      a lower or equal depth. Otherwise the deeper entry of the current search is kept.
+ */
+final class TranspositionTable {
+
+    /* Bound types. The value is a lower bound, an upper bound or the exact value */
+    static final int LOWER = 1;
+    static final int UPPER = 2;
+    static final int EXACT = 3;
+
+    private final long[] slots;
+    private final int mask;
+
+    private int generation;
+
+    /* Counters of the current search (see Engine.getTableHits()) */
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+
+    /**
+     *      TranspositionTable constructor
+     *
+     *      @param bits: the table has 2^bits slots.
+     */
+    TranspositionTable(int bits) {
+
+        this.slots = new long[2 << bits];
+        this.mask = (1 << bits) - 1;
+    }
+
+
+    /**
+     *      Starts a new search. Entries of previous searches stay valid but are
+     *      replaced first. The counters are reset. Must not be called while a 
+     *      search is running.
+     */
+    void newSearch() {
+
+        this.generation = (this.generation + 1) & 0xFF;
+        this.hits.reset();
+        this.misses.reset();
+        this.stores.reset();
+    }
+
+
+    /**
+     *      Looks up the entry of a state.
+     *
+     *      @param hash: the Zobrist hash of the state.
+     *      @return the entry of the state or 0 if the state is not in the table.
+     */
+    long probe(long hash) {
+
+        int slot = ((int) hash & this.mask) << 1;
+        long entry = this.slots[slot + 1];
+
+        if (entry != 0 && (this.slots[slot] ^ entry) == hash) {
+            this.hits.increment();
+            return entry;
+        }
+
+        this.misses.increment();
+        return 0;
+    }
+
+
+    /**
+     *      Stores the result of a state following the replacement policy.
+     *
+     *      @param hash: the Zobrist hash of the state.
+     *      @param value: the value of the state.
+     *      @param bound: LOWER, UPPER or EXACT.
+     *      @param depth: the depth the state was simulated to.
+     *      @param move: the best move of the state or -1 for no move.
+     */
+    void store(long hash, int value, int bound, int depth, int move) {
+
+        int slot = ((int) hash & this.mask) << 1;
+        long entry = this.slots[slot + 1];
+
+        if (entry != 0 && (this.slots[slot] ^ entry) != hash &&
+                getGeneration(entry) == this.generation && getDepth(entry) > depth) {
+            return;
+        }
+
+        entry = (value & 0xFFFFL) |
+                    ((long) bound << 16) |
+                    ((long) depth << 18) |
+                    ((long) (move + 1) << 26) |
+                    ((long) this.generation << 32);
+
+        this.slots[slot] = hash ^ entry;
+        this.slots[slot + 1] = entry;
+        this.stores.increment();
+    }
+
+
+    /* Getters of the packed fields of an entry */
+
+    static int getValue(long entry) {
+        return (short) entry;
+    }
+
+    static int getBound(long entry) {
+        return (int) (entry >>> 16) & 0x3;
+    }
+
+    static int getDepth(long entry) {
+        return (int) (entry >>> 18) & 0xFF;
+    }
+
+    static int getMove(long entry) {
+        return ((int) (entry >>> 26) & 0x1F) - 1;
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+
+    /* Counters of the current search */
+
+    long getHits() {
+        return this.hits.sum();
+    }
+
+    long getMisses() {
+        return this.misses.sum();
+    }
+
+    long getStores() {
+        return this.stores.sum();
+    }
+}
@@ -0,0 +1,84 @@
+package minimax;
+
+import java.util.Random;
+
+
+/**
+ *      Zobrist Class holds the random keys used to hash the states of the game.
+ *      The hash of a state is the XOR of the keys of its unavailable blocks, the
+ *      squares of the AI and the player and the side to move. A move only changes
+ *      a few of these, so the hash of a child is the hash of its parent XORed
+ *      with a single precomputed key of the move.
+ */
+final class Zobrist {
+
+    /* Keys of the unavailable blocks and the AI and player squares */
+    static final long[] BLOCKED = new long[Bitboard.SQUARES];
+    static final long[] AI = new long[Bitboard.SQUARES];
+    static final long[] PLAYER = new long[Bitboard.SQUARES];
+
+    /* Key that is present when MIN (player) is to move */
+    static final long SIDE;
+
+    /*
+        Difference between the hash of a state and the hash of its child for every
+        move of every square. This covers the origin and crossed blocks becoming
+        unavailable, the occupant changing square and the side to move changing.
+    */
+    static final long[][] AI_MOVES = new long[Bitboard.SQUARES][Bitboard.MOVES];
+    static final long[][] PLAYER_MOVES = new long[Bitboard.SQUARES][Bitboard.MOVES];
+
+
+    static {
+
+        /* A fixed seed keeps the hashes identical between runs, which helps debugging */
+        Random random = new Random(0x5A0B2157L);
+
+        for (int square = 0; square < Bitboard.SQUARES; square++) {
+            BLOCKED[square] = random.nextLong();
+            AI[square] = random.nextLong();
+            PLAYER[square] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+
+        for (int square = 0; square < Bitboard.SQUARES; square++) {
+            for (int move = 0; move < Bitboard.MOVES; move++) {
+
+                int destination = Bitboard.DESTINATION[square][move];
+
+                if (destination < 0)
+                    continue;
+
+                long crossed = Bitboard.PATH[square][move] & ~Bitboard.bit(destination);
+                long key = BLOCKED[square] ^ SIDE;
+
+                if (crossed != 0)
+                    key ^= BLOCKED[Long.numberOfTrailingZeros(crossed)];
+
+                AI_MOVES[square][move] = key ^ AI[square] ^ AI[destination];
+                PLAYER_MOVES[square][move] = key ^ PLAYER[square] ^ PLAYER[destination];
+            }
+        }
+    }
+
+
+    private Zobrist() {
+    }
+
+
+    /**
+     *      Computes the hash of a position from scratch.
+     *
+     *      @param position: the position.
+     *      @return the hash of the position.
+     */
+    static long hash(Position position) {
+
+        long hash = AI[position.getComp()] ^ PLAYER[position.getPlayer()];
+
+        for (long blocked = position.getBlocked(); blocked != 0; blocked &= blocked - 1)
+            hash ^= BLOCKED[Long.numberOfTrailingZeros(blocked)];
+
+        return position.getTurn() == Position.MIN ? hash ^ SIDE : hash;
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+
+/*
+	The exact cost from every list of N ints to the final state, for N <= 11.
+	Every list is indexed by its rank (Lehmer code): the i-th digit is the number of smaller ints after position i,
+	so the N! lists are numbered 0 to N!-1 in lexicographic order and the final state is 0.
+	The costs are found by a breadth first search from the final state (T(k) is its own inverse, so this is
+	the same as searching backwards) where every level is found by scanning the table for the lists of the previous level.
+
+	No list of N <= 11 ints costs more than 14, so every cost is packed into 4 bits (two costs per byte)
+	and the table of N=11 takes about 20MB. The table is built straight into a memory mapped file, so it is
+	kept off the heap, and it is saved so that it is only built once for every N.
+	The file starts with N and is followed by the table.
+*/
+class DistanceOracle {
+
+	public static final int MAX_N = 11;
+	private static final int HEADER = 1;	// N
+	private static final int UNKNOWN = 0xF;	// the cost of a list not found yet by the search
+
+	private final int n;
+	private final int size;	// N!
+	private final MappedByteBuffer table;
+
+
+	/**
+	 * Maps the table of N into memory, the table is built and saved first if there is no file for N
+	 *
+	 * @param n: the number of ints of the lists
+	 * @throws IOException if the file cannot be read or written
+	 */
+	public DistanceOracle(int n) throws IOException {
+
+		this.n = n;
+		this.size = factorial(n);
+
+		File file = new File(getFileName(n));
+		long length = HEADER + (this.size + 1) / 2;
+
+		if (!file.exists() || file.length() != length) {
+
+			// build into a temporary file first, so that a half built table is never used
+			File temp = new File(getFileName(n) + ".tmp");
+
+			try (RandomAccessFile output = new RandomAccessFile(temp, "rw")) {
+
+				output.setLength(length);
+				build(output.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length));
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+
+			this.table = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+
+		if (this.table.get(0) != n) {
+			throw new IOException("Invalid distance oracle: " + getFileName(n));
+		}
+	}
+
+
+	/**
+	 * @param list: a list of the ints 1 to N
+	 * @return the lowest cost from the list to the final state
+	 */
+	public int distance(int[] list) {
+
+		return get(this.table, rank(list));
+	}
+
+
+	/**
+	 * @param n: the number of ints of the lists
+	 * @return the name of the distance oracle file of N
+	 */
+	public static String getFileName(int n) {
+
+		return "oracle" + n + ".bin";
+	}
+
+
+	private static int factorial(int n) {
+
+		int factorial = 1;
+
+		for (int i=2; i<=n; i++) factorial *= i;
+
+		return factorial;
+	}
+
+
+	// the cost of the list with the given rank
+	private static int get(MappedByteBuffer table, int rank) {
+
+		return (table.get(HEADER + rank/2) >> (4 * (rank & 1))) & 0xF;
+	}
+
+
+	private static void set(MappedByteBuffer table, int rank, int cost) {
+
+		int index = HEADER + rank/2;
+		int shift = 4 * (rank & 1);
+
+		table.put(index, (byte) ((table.get(index) & ~(0xF << shift)) | (cost << shift)));
+	}
+
+
+	/**
+	 * @param list: a list of the ints 1 to N
+	 * @return the rank of the list
+	 */
+	private int rank(int[] list) {
+
+		int rank = 0;
+		int used = 0;	// bit i is set if the int i+1 is before the current position
+
+		for (int i=0; i<this.n; i++) {
+
+			int value = list[i] - 1;
+
+			// the number of smaller ints after position i
+			rank = rank * (this.n - i) + value - Integer.bitCount(used & ((1 << value) - 1));
+			used |= 1 << value;
+		}
+		return rank;
+	}
+
+
+	/**
+	 * The reverse of rank()
+	 *
+	 * @param rank: the rank of a list
+	 * @param list: filled with the list of the given rank
+	 */
+	private void unrank(int rank, int[] list) {
+
+		for (int i=this.n-1; i>=0; i--) {
+			list[i] = rank % (this.n - i);
+			rank /= this.n - i;
+		}
+
+		int used = 0;
+
+		for (int i=0; i<this.n; i++) {
+
+			// find the unused int with the given number of smaller unused ints
+			int value = 0;
+
+			for (int count=list[i]; (used & (1 << value)) != 0 || count > 0; value++) {
+				if ((used & (1 << value)) == 0) count--;
+			}
+			used |= 1 << value;
+			list[i] = value + 1;
+		}
+	}
+
+
+	/**
+	 * Finds the cost of every list with a breadth first search from the final state
+	 *
+	 * @param table: the mapped file, filled with N and the table
+	 */
+	private void build(MappedByteBuffer table) {
+
+		int[] list = new int[this.n];
+		int found = 1;
+
+		for (int i=HEADER; i<table.capacity(); i++) table.put(i, (byte) 0xFF);
+
+		table.put(0, (byte) this.n);
+		set(table, 0, 0);	// the final state
+
+		for (int cost=0; found > 0; cost++) {
+
+			System.out.print("\rBuilding the distance oracle of N=" + this.n + " . . . cost " + cost);
+			found = 0;
+
+			for (int rank=0; rank<this.size; rank++) {
+
+				if (get(table, rank) != cost) continue;
+
+				unrank(rank, list);
+
+				// apply the transition operators T(k) where 1<k<=N
+				for (int k=2; k<=this.n; k++) {
+
+					Lists.reverse(list, k);
+
+					int next = rank(list);
+
+					if (get(table, next) == UNKNOWN) {
+						set(table, next, cost + 1);
+						found++;
+					}
+
+					Lists.reverse(list, k);	// undo T(k)
+				}
+			}
+		}
+
+		table.force();
+		System.out.print("\rDistance oracle saved to " + getFileName(this.n) + "                    \n");
+	}
+}
@@ -0,0 +1,35 @@
+/*
+	Operations on the unpacked lists of N ints (int arrays), shared by Search and the table tools
+	(the packed lists are handled by State).
+*/
+class Lists {
+
+	private Lists() {
+	}
+
+
+	/**
+	 * @return true if two adjacent integers are a gap (differ by more than 1)
+	 */
+	static boolean isGap(int a, int b) {
+		return a - b > 1 || b - a > 1;
+	}
+
+
+	/**
+	 * Applies the transition operator T(k) to a list in place (T(k) is its own inverse, so applying it again undoes it)
+	 * 
+	 * @param list: the list
+	 * @param k: the transition operator T(k) where 2<=k<=N
+	 */
+	static void reverse(int[] list, int k) {
+
+		int temp;
+
+		for (int i=0, j=k-1; i<j; i++, j--) {
+			temp = list[i];
+			list[i] = list[j];
+			list[j] = temp;
+		}
+	}
+}
@@ -0,0 +1,287 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+
+/*
+	compile command:
+	javac PatternDatabase.java
+
+	run command:
+	java PatternDatabase <N> [<pattern size>]
+
+	<N>: the number of ints of the lists the pattern database is built for (at most 16)
+	<pattern size> (optional): the number of ints in each pattern, 6 by default (at most 7)
+
+	run example:
+	java PatternDatabase 14
+	java Search alphastar 3,14,9,1,12,6,10,2,13,5,7,11,4,8 pdb
+*/
+
+
+/*
+	Pattern databases of the lists of N ints.
+	The ints 1 to N are split into patterns of consecutive ints (1 to P, P+1 to 2P and so on).
+	A pattern is a list where only the positions of the ints of the pattern are known.
+	Applying T(k) to a list applies it to its pattern too, so the cost from a pattern to the final pattern
+	never exceeds the cost from the list to the final state and is an admissible h(n).
+	Every T(k) moves every int it reverses, so the costs of different patterns cannot be added
+	and the largest one is used.
+
+	The costs of all the patterns are found by a breadth first search backwards from the final pattern
+	(T(k) is its own inverse, so this is the same as searching forward) and are saved to a file,
+	one byte for each pattern. The file starts with N and P and is followed by the table of every pattern.
+	A pattern is indexed by the positions of its ints, where the position of the i-th int is counted
+	among the N-i positions left free by the previous ints, so a table has N!/(N-P)! entries.
+*/
+class PatternDatabase {
+
+	public static final int MAX_N = 16;	// same as Search.MAX_N
+	public static final int MAX_PATTERN_SIZE = 7;	// the tables of N=16 take about 130MB
+	public static final int DEFAULT_PATTERN_SIZE = 6;	// the tables of N=16 take about 11MB
+	private static final int HEADER = 2;	// N and P
+	private static final byte UNKNOWN = (byte) 0xFF;	// the cost of a pattern not found yet by the search
+
+	private final int n;
+	private final int patternSize;
+	private final int tableSize;
+	private final MappedByteBuffer tables;
+
+
+	/**
+	 * Maps a pattern database file into memory (read only, so the tables are shared by every process using the file)
+	 *
+	 * @param n: the number of ints of the lists
+	 * @throws IOException if the file cannot be read or was not built for N
+	 */
+	public PatternDatabase(int n) throws IOException {
+
+		try (RandomAccessFile file = new RandomAccessFile(getFileName(n), "r")) {
+
+			this.tables = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+		}
+
+		this.n = this.tables.get(0);
+		this.patternSize = this.tables.get(1);
+
+		if (this.n != n || this.patternSize < 1 || this.patternSize > Math.min(n, MAX_PATTERN_SIZE)) {
+			throw new IOException("Invalid pattern database: " + getFileName(n));
+		}
+
+		this.tableSize = getTableSize(n, this.patternSize);
+
+		// every table but the last one has the full size
+		int last = (n - 1) / this.patternSize;
+
+		if (this.tables.capacity() != HEADER + (long) last * this.tableSize + getTableSize(n, n - last * this.patternSize)) {
+			throw new IOException("Invalid pattern database: " + getFileName(n));
+		}
+	}
+
+
+	/**
+	 * Nothing is allocated, so the lookup can be made for every state of a search by any number of threads.
+	 *
+	 * @param list: a packed list (4 bits per int, the int i+1 stored as i, the same as the lists of Search)
+	 * @return the largest cost of the patterns of the list
+	 */
+	public int lookup(long list) {
+
+		long positions = 0;	// the position of every int, packed the same way
+		int cost = 0;
+
+		for (int i=0; i<this.n; i++) {
+			positions |= (long) i << (4 * (int) ((list >>> (4*i)) & 0xF));
+		}
+
+		for (int first=0, table=0; first<this.n; first+=this.patternSize, table++) {
+
+			int size = Math.min(this.patternSize, this.n - first);
+
+			cost = Math.max(cost, this.tables.get(HEADER + table * this.tableSize + rank(positions, first, size, this.n)));
+		}
+		return cost;
+	}
+
+
+	/**
+	 * @param n: the number of ints of the lists
+	 * @return the name of the pattern database file of N
+	 */
+	public static String getFileName(int n) {
+
+		return "pdb" + n + ".bin";
+	}
+
+
+	// the number of entries of a table, N!/(N-P)!
+	private static int getTableSize(int n, int patternSize) {
+
+		int size = 1;
+
+		for (int i=0; i<patternSize; i++) size *= n - i;
+
+		return size;
+	}
+
+
+	/**
+	 * @param positions: the positions of the ints packed 4 bits each, the pattern starts at the position of the int first+1
+	 * @param first: the number of ints before the pattern
+	 * @param size: the number of ints of the pattern
+	 * @param n: the number of ints of the lists
+	 * @return the index of the pattern in its table
+	 */
+	private static int rank(long positions, int first, int size, int n) {
+
+		int index = 0;
+
+		for (int i=0; i<size; i++) {
+
+			// count the position among the positions not taken by the previous ints
+			int current = (int) (positions >>> (4 * (first+i))) & 0xF;
+			int position = current;
+
+			for (int j=0; j<i; j++) {
+				if (((int) (positions >>> (4 * (first+j))) & 0xF) < current) position--;
+			}
+			index = index * (n - i) + position;
+		}
+		return index;
+	}
+
+
+	/**
+	 * The reverse of rank()
+	 *
+	 * @param index: the index of a pattern in its table
+	 * @param pattern: filled with the positions of the ints of the pattern
+	 * @param size: the number of ints of the pattern
+	 * @param n: the number of ints of the lists
+	 */
+	private static void unrank(int index, int[] pattern, int size, int n) {
+
+		for (int i=size-1; i>=0; i--) {
+			pattern[i] = index % (n - i);
+			index /= n - i;
+		}
+
+		boolean[] taken = new boolean[n];
+
+		for (int i=0; i<size; i++) {
+
+			// find the free position with the given count
+			int position = 0;
+
+			for (int count=pattern[i]; taken[position] || count > 0; position++) {
+				if (!taken[position]) count--;
+			}
+			taken[position] = true;
+			pattern[i] = position;
+		}
+	}
+
+
+	/**
+	 * Finds the cost of every pattern of the ints first+1 to first+size with a breadth first search from the final pattern.
+	 * Instead of a queue every level of the search is found by scanning the table for the patterns of the previous level.
+	 *
+	 * @param first: the number of ints before the pattern
+	 * @param size: the number of ints of the pattern
+	 * @param n: the number of ints of the lists
+	 * @return the table of the pattern
+	 */
+	private static byte[] build(int first, int size, int n) {
+
+		byte[] table = new byte[getTableSize(n, size)];
+		int[] pattern = new int[size];
+		long finalPattern = 0;
+		int found = 1;
+
+		Arrays.fill(table, UNKNOWN);
+
+		// in the final pattern the int i+1 is at position i
+		for (int i=0; i<size; i++) finalPattern |= (long) (first + i) << (4*i);
+		table[rank(finalPattern, 0, size, n)] = 0;
+
+		for (int cost=0; found > 0; cost++) {
+
+			found = 0;
+
+			for (int index=0; index<table.length; index++) {
+
+				if (table[index] != cost) continue;
+
+				unrank(index, pattern, size, n);
+
+				// apply the transition operators T(k) where 1<k<=N
+				for (int k=2; k<=n; k++) {
+
+					long transition = 0;
+
+					for (int i=0; i<size; i++) {
+						transition |= (long) ((pattern[i] < k) ? k - 1 - pattern[i] : pattern[i]) << (4*i);
+					}
+
+					int next = rank(transition, 0, size, n);
+
+					if (table[next] == UNKNOWN) {
+						table[next] = (byte) (cost + 1);
+						found++;
+					}
+				}
+			}
+		}
+		return table;
+	}
+
+
+	public static void main(String[] args) throws IOException {
+
+		int n = 0;
+		int patternSize = DEFAULT_PATTERN_SIZE;
+
+		try {
+			if (args.length == 1 || args.length == 2) {
+				n = Integer.parseInt(args[0]);
+				if (args.length == 2) patternSize = Integer.parseInt(args[1]);
+			}
+		}
+		catch (NumberFormatException e) {
+			n = 0;
+		}
+
+		// invalid command line args handling
+		if (n < 2 || n > MAX_N || patternSize < 1 || patternSize > MAX_PATTERN_SIZE) {
+			String message = "Invalid args!\n\n" +
+											"run command:\n" +
+											"java PatternDatabase <N> [<pattern size>]\n\n" +
+											"<N>: the number of ints of the lists the pattern database is built for (at most 16)\n" +
+											"<pattern size> (optional): the number of ints in each pattern, 6 by default (at most 7)\n\n" +
+											"run example:\n" +
+											"java PatternDatabase 14\n";
+			System.out.print(message);
+			System.exit(-1);
+		}
+
+		patternSize = Math.min(patternSize, n);
+
+		try (FileOutputStream file = new FileOutputStream(getFileName(n))) {
+
+			file.write(new byte[] {(byte) n, (byte) patternSize});
+
+			for (int first=0; first<n; first+=patternSize) {
+
+				int size = Math.min(patternSize, n - first);
+
+				System.out.print("\rBuilding the pattern of the ints " + (first+1) + " to " + (first+size) + " . . . ");
+				file.write(build(first, size, n));
+			}
+		}
+
+		System.out.print("\rPattern database saved to " + getFileName(n) + "\n");
+	}
+}
@@ -1,4 +1,38 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 
 /*
@@ -10,242 +44,2920 @@ import java.util.ArrayList;
 	javac Search.java
 
 	run command: 
-	java Search <search algorithm> <initial state>
+	java Search <search algorithm> <initial state> [<heuristic>]
+	java Search hdastar <initial state> [<heuristic> [<threads>]]
 
-	<search algorithm>: ucs OR alphastar 
-	<initial state>: shuffled sequence of ints from 1 to N	split by a comma (N is the total number of ints)	(duplicate values are not allowed)
+	<search algorithm>: ucs OR alphastar OR idastar OR bidirectional OR oracle OR hdastar OR external OR frontier
+	<initial state>: shuffled sequence of ints from 1 to N	split by a comma (N is the total number of ints, at most 16 except for idastar, at most 11 for oracle)	(duplicate values are not allowed)
+	
+	<heuristic> (optional, alphastar, hdastar and external only): gap (default) OR legacy OR zero OR pdb (built with: java PatternDatabase <N>)
+
+	<threads> (optional, hdastar only): the number of threads of the search, the number of processors by default
+
+	external keeps the states on the disk, in a temporary directory of the working directory that is deleted once the search ends
+
+	batch run command (solves every line of a file with idastar and prints one result per line):
+	java Search batch <instances> [<threads> [<timeout> [<format>]]]
+
+	<instances>: a file with one <initial state> per line OR - to read them from the standard input
+	<threads> (optional): the number of lists solved at the same time, the number of processors by default
+	<timeout> (optional): the time limit of each list in ms, 0 (no time limit) by default
+	<format> (optional): csv (default) OR json
+
+	solution cache: the paths found by ucs, alphastar, idastar, batch and server are kept between runs in solutions.bin if the file exists
+	(create an empty solutions.bin to start)
+
+	server run command (solves the lists sent to a port of the local machine, one result line for every line received):
+	java Search server [<port> [<threads> [<timeout> [<format>]]]]
+
+	<port> (optional): 7878 by default
+	<threads> (optional): the number of connections served at the same time, the number of processors by default
+
+	client run command (sends a list to the server and prints the result, the same as: echo <initial state> | nc 127.0.0.1 <port>):
+	java Search client <initial state> [<port>]
 	
 	run examples:
 	java Search ucs 4,3,5,2,1
 	java Search alphastar 4,3,5,2,1 
+	java Search alphastar 4,3,5,2,1 legacy
+	java Search alphastar 4,3,5,2,1 pdb
+	java Search idastar 4,3,5,2,1
+	java Search bidirectional 4,3,5,2,1
+	java Search oracle 4,3,5,2,1
+	java Search hdastar 4,3,5,2,1
+	java Search hdastar 4,3,5,2,1 gap 4
+	java Search external 4,3,5,2,1
+	java Search frontier 4,3,5,2,1
+	java Search batch instances.txt 4 10000 json
+	java Search server 7878 4 10000 json
+	java Search client 4,3,5,2,1 7878
+*/
+
+
+/*
+	A state is stored as packed primitives to keep the memory per state small:
+	the list is packed into a long (4 bits per integer, integer i+1 stored as i, so N <= 16),
+	the transition operator T(k) is stored as k and the parent is the index of the parent state
+	in the list of extended states of the search (see Search.extendedStates).
+*/
+class State {
+
+
+	private long list;	// packed list, the integer at position i is ((list >>> 4*i) & 0xF) + 1
+	private int parent = -1;	// index of the parent in Search.extendedStates, -1 for the initial state
+	private byte transitionOperator;	// telestis metavasis, k of T(k) or 0 for the initial state
+	private int cost;	// g(n)
+	private byte heuristic;	// h(n)
+
+	public long getList() {
+		return this.list;
+	}
+
+	public int getParent() {
+		return this.parent;
+	}
+
+	public byte getTransitionOperator() {
+		return this.transitionOperator;
+	}
+
+	public int getCost() {
+		return this.cost;
+	}
+
+	public byte getHeuristic() {
+		return this.heuristic;
+	}
+
+	public void setList(long List) {
+		this.list = List;
+	}
+
+	public void setParent(int Parent) {
+		this.parent = Parent;
+	}
+
+	public void setTransitionOperator(byte Operator) {
+		this.transitionOperator = Operator;
+	}
+
+	public void setCost(int Cost) {
+		this.cost = Cost;
+	}
+
+	public void setHeuristic(int Heuristic) {
+		this.heuristic = (byte) Heuristic;
+	}
+
+	/**
+	 * Unpacks the list of the state, used when printing the state
+	 * 
+	 * @return ArrayList containing the integers of the state
+	 */
+	public ArrayList<Integer> getUnpackedList() {
+
+		ArrayList<Integer> unpacked = new ArrayList<Integer>();
+
+		for (int i=0; i<Search.N; i++) {
+			unpacked.add(State.get(this.list, i));
+		}
+		return unpacked;
+	}
+
+	/**
+	 * @return the transition operator as a string, e.g. "T(3)"
+	 */
+	public String getTransitionOperatorName() {
+
+		if (this.transitionOperator == 0) return "Initial State";
+		return "T(" + this.transitionOperator + ")";
+	}
+
+	/**
+	 * Returns the integer at a position of a packed list
+	 * 
+	 * @param list: the packed list
+	 * @param i: the position (0 to N-1)
+	 * @return the integer at position i
+	 */
+	public static int get(long list, int i) {
+		return (int) ((list >>> (4*i)) & 0xF) + 1;
+	}
+
+	/**
+	 * @param list: the ints 1 to N (N <= 16)
+	 * @return the packed list
+	 */
+	public static long pack(int[] list) {
+
+		long packed = 0;
+
+		for (int i=0; i<list.length; i++) {
+			packed |= (long) (list[i] - 1) << (4*i);
+		}
+		return packed;
+	}
+
+	/**
+	 * Applies the transition operator T(k) to a packed list using bit operations.
+	 * The first k integers (4 bits each) are reversed and the remaining integers are left intact.
+	 * 
+	 * @param list: the packed list
+	 * @param k: the transition operator T(k) where 2<=k<=N
+	 * @return the new packed list
+	 */
+	public static long reverse(long list, int k) {
+
+		long mask = (k == 16) ? -1L : (1L << (4*k)) - 1;
+		long prefix = list & mask;
+
+		// reverse the order of all 16 groups of 4 bits: reverse the bytes and then swap the two groups of each byte
+		prefix = Long.reverseBytes(prefix);
+		prefix = ((prefix & 0x0F0F0F0F0F0F0F0FL) << 4) | ((prefix >>> 4) & 0x0F0F0F0F0F0F0F0FL);
+
+		// the reversed first k integers are now at the top of the long
+		return (list & ~mask) | (prefix >>> (4*(16-k)));
+	}
+
+	/* 
+		Override necessary for STEP 4 in method search().
+		Two State classes are equal as long as they have the same list.
+	*/
+	@Override
+	public boolean equals(Object o) {
+
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		State state = (State) o;
+        
+		return this.list == state.getList();
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(this.list);
+	}
+}
+
+
+/*
+	Priority queue used as the search queue (metopo anazitisis).
+	States are kept in buckets by their priority, which is an integer (g(n) for ucs, g(n)+h(n) for alphastar),
+	so adding a state and removing the state with the lowest priority take constant time
+	instead of a scan of the whole search queue.
+	Ties are broken deterministically: among states with the same priority the one with the highest cost g(n)
+	is removed first (it is the closest to a final state), and among those the one that was added first.
+	Only the index of a state is kept (in the NodeArena of search() or the states of a thread of ParallelSearch),
+	so every bucket is a growable circular array of ints instead of a queue of objects.
+*/
+class BucketQueue {
+
+
+	private ArrayList<ArrayList<Bucket>> buckets = new ArrayList<ArrayList<Bucket>>();	// buckets.get(priority).get(cost)
+	private int[] bucketSizes = new int[16];	// number of states in each priority bucket (grows with the buckets)
+	private int minPriority = 0;	// there are no states with a lower priority than this
+	private int size = 0;
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Adds a state to the queue
+	 * 
+	 * @param state: the index of the state to be added
+	 * @param cost: g(n) of the state
+	 * @param priority: the priority of the state (lower is removed first)
+	 */
+	public void add(int state, int cost, int priority) {
+
+		// create any missing buckets
+		while (this.buckets.size() <= priority) {
+			this.buckets.add(new ArrayList<Bucket>());
+		}
+
+		if (this.bucketSizes.length <= priority) {
+			this.bucketSizes = Arrays.copyOf(this.bucketSizes, Math.max(2 * this.bucketSizes.length, priority + 1));
+		}
+
+		ArrayList<Bucket> bucket = this.buckets.get(priority);
+
+		while (bucket.size() <= cost) {
+			bucket.add(new Bucket());
+		}
+
+		bucket.get(cost).add(state);
+		this.bucketSizes[priority]++;
+		this.size++;
+
+		// a heuristic that is not consistent may add a state with a lower priority than the states removed so far
+		if (priority < this.minPriority) this.minPriority = priority;
+	}
+
+	/**
+	 * Removes the state with the lowest priority from the queue
+	 * 
+	 * @return the index of the removed state or -1 if the queue is empty
+	 */
+	public int poll() {
+
+		if (this.size == 0) return -1;
+
+		// find the lowest priority with any states
+		while (this.bucketSizes[this.minPriority] == 0) {
+			this.minPriority++;
+		}
+
+		ArrayList<Bucket> bucket = this.buckets.get(this.minPriority);
+
+		// find the highest cost with any states
+		int cost = bucket.size() - 1;
+		while (bucket.get(cost).isEmpty()) {
+			cost--;
+		}
+
+		this.bucketSizes[this.minPriority]--;
+		this.size--;
+
+		return bucket.get(cost).poll();
+	}
+
+
+	/*
+		First in first out queue of ints kept in a circular array, which doubles in size when it is full.
+	*/
+	private static class Bucket {
+
+		private int[] items = new int[16];	// the length is always a power of 2
+		private int head = 0;	// the position of the first int
+		private int size = 0;
+
+		public boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		public void add(int item) {
+
+			if (this.size == this.items.length) {
+
+				// unroll the circular array into a new array of double the length
+				int[] items = new int[2 * this.items.length];
+
+				for (int i=0; i<this.size; i++) {
+					items[i] = this.items[(this.head + i) & (this.items.length - 1)];
+				}
+				this.items = items;
+				this.head = 0;
+			}
+
+			this.items[(this.head + this.size) & (this.items.length - 1)] = item;
+			this.size++;
+		}
+
+		public int poll() {
+
+			int item = this.items[this.head];
+
+			this.head = (this.head + 1) & (this.items.length - 1);
+			this.size--;
+
+			return item;
+		}
+	}
+}
+
+
+/*
+	The states generated by search(), kept as a struct of arrays instead of State objects:
+	every field of a state is kept in its own array of primitives and a state is just its index in those arrays.
+	A state takes 18 bytes (packed list, parent index, transition operator, g(n) and h(n)) without any object header,
+	so the search queue, the closed queue and the parent of a state only hold ints, and the garbage collector has nothing to scan.
+	The arrays are allocated in chunks of CHUNK_SIZE states, so they never have to be copied while they grow.
+*/
+class NodeArena {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;	// states per chunk
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private long[][] lists = new long[0][];	// lists[chunk][state in chunk]
+	private int[][] parents = new int[0][];	// index of the parent, -1 for the initial state
+	private byte[][] operators = new byte[0][];	// the transition operator T(k) as k, 0 for the initial state
+	private int[][] costs = new int[0][];	// g(n)
+	private byte[][] heuristics = new byte[0][];	// h(n)
+	private int size = 0;
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Adds a state
+	 * 
+	 * @param list: the packed list
+	 * @param parent: the index of the parent, -1 for the initial state
+	 * @param operator: the transition operator T(k) as k, 0 for the initial state
+	 * @param cost: g(n)
+	 * @param heuristic: h(n)
+	 * @return the index of the state
+	 */
+	public int add(long list, int parent, int operator, int cost, int heuristic) {
+
+		int chunk = this.size >>> CHUNK_BITS;
+
+		// allocate a new chunk
+		if (chunk == this.lists.length) {
+
+			int chunks = Math.max(16, 2 * this.lists.length);
+
+			this.lists = Arrays.copyOf(this.lists, chunks);
+			this.parents = Arrays.copyOf(this.parents, chunks);
+			this.operators = Arrays.copyOf(this.operators, chunks);
+			this.costs = Arrays.copyOf(this.costs, chunks);
+			this.heuristics = Arrays.copyOf(this.heuristics, chunks);
+		}
+
+		if (this.lists[chunk] == null) {
+			this.lists[chunk] = new long[CHUNK_SIZE];
+			this.parents[chunk] = new int[CHUNK_SIZE];
+			this.operators[chunk] = new byte[CHUNK_SIZE];
+			this.costs[chunk] = new int[CHUNK_SIZE];
+			this.heuristics[chunk] = new byte[CHUNK_SIZE];
+		}
+
+		int i = this.size & CHUNK_MASK;
+
+		this.lists[chunk][i] = list;
+		this.parents[chunk][i] = parent;
+		this.operators[chunk][i] = (byte) operator;
+		this.costs[chunk][i] = cost;
+		this.heuristics[chunk][i] = (byte) heuristic;
+
+		return this.size++;
+	}
+
+	public long getList(int state) {
+		return this.lists[state >>> CHUNK_BITS][state & CHUNK_MASK];
+	}
+
+	public int getParent(int state) {
+		return this.parents[state >>> CHUNK_BITS][state & CHUNK_MASK];
+	}
+
+	public int getTransitionOperator(int state) {
+		return this.operators[state >>> CHUNK_BITS][state & CHUNK_MASK];
+	}
+
+	public int getCost(int state) {
+		return this.costs[state >>> CHUNK_BITS][state & CHUNK_MASK];
+	}
+
+	public int getHeuristic(int state) {
+		return this.heuristics[state >>> CHUNK_BITS][state & CHUNK_MASK];
+	}
+}
+
+
+/*
+	Hash set of the states of a NodeArena by their packed lists, used as the closed queue of search(),
+	as the states reached by each side of bidirectional() and as the lowest cost state of each list of a thread of ParallelSearch.
+	It keeps only the indices of the states (open addressing with linear probing in an int array),
+	and the lists are read from the NodeArena when they are compared.
+*/
+class NodeSet {
+
+	private final NodeArena arena;
+	private int[] table = new int[1 << 10];	// index of a state + 1, 0 for an empty slot
+	private int size = 0;
+
+	public NodeSet(NodeArena arena) {
+		this.arena = arena;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	// the first slot of a list (the length of the table is always a power of 2)
+	private int slot(long list) {
+		return (int) ((list * 0x9E3779B97F4A7C15L) >>> 32) & (this.table.length - 1);
+	}
+
+	/**
+	 * @param list: a packed list
+	 * @return true if a state with the list is in the set
+	 */
+	public boolean contains(long list) {
+
+		for (int i=slot(list); this.table[i] != 0; i=(i+1) & (this.table.length-1)) {
+			if (this.arena.getList(this.table[i]-1) == list) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param list: a packed list
+	 * @return the index of the state with the list in the NodeArena or -1 if it is not in the set
+	 */
+	public int get(long list) {
+
+		for (int i=slot(list); this.table[i] != 0; i=(i+1) & (this.table.length-1)) {
+			if (this.arena.getList(this.table[i]-1) == list) return this.table[i]-1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds a state, or replaces the state with the same list if there is one
+	 * 
+	 * @param state: the index of the state in the NodeArena
+	 */
+	public void put(int state) {
+
+		long list = this.arena.getList(state);
+
+		for (int i=slot(list); this.table[i] != 0; i=(i+1) & (this.table.length-1)) {
+			if (this.arena.getList(this.table[i]-1) == list) {
+				this.table[i] = state + 1;
+				return;
+			}
+		}
+		add(state);
+	}
+
+	/**
+	 * Adds a state, which must not have the list of a state already in the set
+	 * 
+	 * @param state: the index of the state in the NodeArena
+	 */
+	public void add(int state) {
+
+		// keep the table at most half full
+		if (2 * (this.size + 1) > this.table.length) {
+
+			int[] table = this.table;
+			this.table = new int[2 * table.length];
+
+			for (int entry : table) {
+				if (entry != 0) insert(entry);
+			}
+		}
+
+		insert(state + 1);
+		this.size++;
+	}
+
+	private void insert(int entry) {
+
+		int i = slot(this.arena.getList(entry-1));
+
+		while (this.table[i] != 0) {
+			i = (i+1) & (this.table.length-1);
+		}
+		this.table[i] = entry;
+	}
+}
+
+
+/*
+	Heuristic function h(n) of the alphastar algorithm.
+	Since a transition operator only changes part of a state, the heuristic of a new state
+	can usually be computed from the heuristic of its parent much faster than from scratch.
 */
+interface Heuristic {
+
+	/**
+	 * @param list: the packed list of a state
+	 * @return h(n)
+	 */
+	int estimate(long list);
+
+	/**
+	 * @param list: the packed list of the parent state
+	 * @param heuristic: h(n) of the parent state
+	 * @param k: the transition operator T(k) applied to the parent state
+	 * @return h(n) of the new state
+	 */
+	int update(long list, int heuristic, int k);
+
+	/**
+	 * @return true if h(n) never overestimates the cost to a final state, so alphastar finds the lowest cost path
+	 */
+	boolean isAdmissible();
+}
+
+
+/*
+	The gap heuristic: the number of adjacent integers that differ by more than 1,
+	where the last integer is compared with N+1 (as if there was an N+1 at the end of the list).
+	Every gap must be closed by a separate transition operator, so the heuristic is admissible.
+	T(k) reverses the first k integers, so the only adjacency that changes is the one between positions k-1 and k,
+	which becomes the adjacency between the first integer and position k.
+*/
+class GapHeuristic implements Heuristic {
+
+	// the integer at position i or N+1 after the end of the list
+	private static int get(long list, int i) {
+		return (i == Search.N) ? Search.N+1 : State.get(list, i);
+	}
+
+	public int estimate(long list) {
+
+		int heuristic = 0;
+
+		for (int i=0; i<Search.N; i++) {
+			if (Lists.isGap(get(list, i), get(list, i+1))) heuristic++;
+		}
+		return heuristic;
+	}
+
+	public int update(long list, int heuristic, int k) {
+
+		int next = get(list, k);
+
+		if (Lists.isGap(get(list, k-1), next)) heuristic--;
+		if (Lists.isGap(get(list, 0), next)) heuristic++;
+
+		return heuristic;
+	}
+
+	public boolean isAdmissible() {
+		return true;
+	}
+}
+
+
+/*
+	The original hand-tuned heuristic of the project (see the report).
+	It is not admissible, so alphastar may not find the lowest cost path with it.
+*/
+class LegacyHeuristic implements Heuristic {
+
+	public int estimate(long list) {
+
+		int heuristic = 0;
+
+		// run the list excluding the first item
+		for (int i=1; i<Search.N; i++) {
+
+			// if any given list item is not at the expected position for a final state
+			if (State.get(list, i) != (i+1)) {
+				
+				if (heuristic == 0) heuristic++;	// at least one transition operation is required
+				
+				// check descending order with previous list item
+				if (State.get(list, i-1) > State.get(list, i) && State.get(list, i-1) != (State.get(list, i)+1)) heuristic++;
+			}
+		}
+		return heuristic;
+	}
+
+	public int update(long list, int heuristic, int k) {
+		return estimate(State.reverse(list, k));
+	}
+
+	public boolean isAdmissible() {
+		return false;
+	}
+}
+
+
+/*
+	h(n) = 0, which makes alphastar behave like ucs.
+*/
+class ZeroHeuristic implements Heuristic {
+
+	public int estimate(long list) {
+		return 0;
+	}
+
+	public int update(long list, int heuristic, int k) {
+		return 0;
+	}
+
+	public boolean isAdmissible() {
+		return true;
+	}
+}
+
+
+/*
+	The largest cost of the pattern databases of N (see PatternDatabase) and the gap heuristic.
+	The pattern databases are mapped into memory from the file built by PatternDatabase,
+	so there is nothing to compute at startup. The heuristic may be used by several threads (see ParallelSearch).
+	The patterns are ranked straight from the packed list, so nothing is allocated per state.
+	The largest cost does not tell which pattern it came from, so update() looks the new list up instead of
+	updating h(n) of the parent.
+*/
+class PatternDatabaseHeuristic implements Heuristic {
+
+	private final PatternDatabase patternDatabase = new PatternDatabase(Search.N);
+	private final GapHeuristic gapHeuristic = new GapHeuristic();
+
+	public PatternDatabaseHeuristic() throws IOException {
+	}
+
+	public int estimate(long list) {
+
+		return Math.max(gapHeuristic.estimate(list), patternDatabase.lookup(list));
+	}
+
+	public int update(long list, int heuristic, int k) {
+		return estimate(State.reverse(list, k));
+	}
+
+	public boolean isAdmissible() {
+		return true;
+	}
+}
+
+
+/*
+	Hash distributed alphastar (HDA*): alphastar run by several threads at the same time.
+	Every state is owned by the thread picked by the hash of its list. A thread keeps its own search queue and
+	the lowest cost found for each of its states, so no state is ever shared. The new states of an extended state
+	are sent to their owners through lock-free queues, where they are added to the search queue of the owner
+	if they have a lower cost than any found so far (so a state may be extended again with a lower cost).
+	The states of a thread are kept in its own NodeArena and NodeSet, and the states sent to the other threads are
+	packed into batches of primitives (a list and its cost, h(n) and transition operator), so no object is created per state.
+	A batch is sent once it is full, every FLUSH_EXTENDS extends and whenever the thread has nothing left to extend.
+
+	The lowest cost of a final state found so far (the incumbent) is shared by all the threads, and states with
+	g(n)+h(n) not lower than it are dropped. The search ends once every thread has nothing left to extend and there
+	are no batches in the queues. If h(n) is admissible the incumbent then has the lowest cost.
+
+	The end of the search is found with a single counter of the work left: the threads that are extending states
+	plus the batches in the queues. A thread that was waiting counts itself before the batch it received is uncounted,
+	so the counter only reaches 0 once there is no work left and then it never changes again.
+	A thread with nothing to extend is parked until a batch is sent to it or the counter reaches 0, so it takes no processor time.
+
+	The path is found by following the transition operators back from the final state: T(k) is its own inverse,
+	so the parent of a state is the state with T(k) applied again, which is looked up in the states of its owner.
+*/
+class ParallelSearch {
+
+	private static final int BATCH_SIZE = 64;	// the states sent at a time
+	private static final int FLUSH_EXTENDS = 16;	// the extends after which every batch is sent, even if it is not full
+
+	private final int threads;
+	private final ArrayList<ConcurrentLinkedQueue<long[]>> queues = new ArrayList<ConcurrentLinkedQueue<long[]>>();	// the batches sent to each thread
+	private final NodeArena[] arenas;	// the states of each thread
+	private final NodeSet[] reached;	// the state with the lowest cost found for each list of each thread
+	private final Thread[] workers;
+	private final AtomicInteger incumbent = new AtomicInteger(Integer.MAX_VALUE);	// the lowest cost of a final state so far
+	private final AtomicInteger work;	// the threads extending states + the batches in the queues
+	private final AtomicLong extendCounter = new AtomicLong();
+	private final AtomicLong statesCounter = new AtomicLong();
+
+
+	/**
+	 * @param threads: the number of threads to run the search on
+	 */
+	public ParallelSearch(int threads) {
+
+		this.threads = threads;
+		this.work = new AtomicInteger(threads);	// every thread starts extending states
+		this.arenas = new NodeArena[threads];
+		this.reached = new NodeSet[threads];
+		this.workers = new Thread[threads];
+
+		for (int i=0; i<threads; i++) {
+			this.queues.add(new ConcurrentLinkedQueue<long[]>());
+			this.arenas[i] = new NodeArena();
+			this.reached[i] = new NodeSet(this.arenas[i]);
+		}
+	}
+
+
+	public long getExtendCounter() {
+		return this.extendCounter.get();
+	}
+
+	public long getStatesCounter() {
+		return this.statesCounter.get();
+	}
+
+
+	/**
+	 * Runs the search from the initial state
+	 *
+	 * @param initialState: the initial state with its h(n) set
+	 * @return the states of the path from the initial state to a final state or null if there is none
+	 * @throws InterruptedException if the search is interrupted
+	 */
+	public ArrayList<State> search(State initialState) throws InterruptedException {
+
+		this.work.incrementAndGet();
+		this.queues.get(owner(initialState.getList())).add(new long[] {initialState.getList(), pack(0, initialState.getHeuristic(), 0)});
+
+		for (int i=0; i<this.threads; i++) {
+
+			int id = i;
+			this.workers[i] = new Thread(() -> run(id), "HDA* " + i);
+		}
+
+		// every worker is created before any is started, so that they can all be unparked
+		for (Thread worker : this.workers) {
+			worker.start();
+		}
+
+		for (Thread worker : this.workers) {
+			worker.join();
+		}
+
+		if (this.incumbent.get() == Integer.MAX_VALUE) return null;
+
+		// follow the transition operators back from the final state
+		ArrayList<State> path = new ArrayList<State>();
+		long list = Search.finalList;
+
+		while (true) {
+
+			NodeArena arena = this.arenas[owner(list)];
+			int state = this.reached[owner(list)].get(list);
+			State pathState = new State();
+
+			pathState.setList(list);
+			pathState.setTransitionOperator((byte) arena.getTransitionOperator(state));
+			pathState.setHeuristic(arena.getHeuristic(state));
+			path.add(0, pathState);
+
+			if (arena.getTransitionOperator(state) == 0) break;
+
+			list = State.reverse(list, arena.getTransitionOperator(state));
+		}
+		return path;
+	}
+
+
+	/**
+	 * @param list: the packed list of a state
+	 * @return the thread that owns the state
+	 */
+	private int owner(long list) {
+
+		return (int) (((list * 0x9E3779B97F4A7C15L) >>> 33) % this.threads);
+	}
+
+
+	// g(n), h(n) and the transition operator of a state sent in a batch
+	private static long pack(int cost, int heuristic, int operator) {
+
+		return (long) cost << 16 | heuristic << 8 | operator;
+	}
+
+
+	/**
+	 * The search of a single thread
+	 *
+	 * @param id: the thread
+	 */
+	private void run(int id) {
+
+		ConcurrentLinkedQueue<long[]> queue = this.queues.get(id);
+		NodeArena arena = this.arenas[id];
+		NodeSet reached = this.reached[id];
+		BucketQueue searchQueue = new BucketQueue();
+		long[][] batches = new long[this.threads][2 * BATCH_SIZE];	// the states not sent yet to each thread
+		int[] batchSizes = new int[this.threads];
+		boolean extending = true;	// counted in this.work
+		long extendCounter = 0;
+		long statesCounter = 0;
+
+		while (true) {
+
+			// add the states sent by the other threads
+			for (long[] batch = queue.poll(); batch != null; batch = queue.poll()) {
+
+				if (!extending) {
+					extending = true;
+					this.work.incrementAndGet();
+				}
+
+				for (int i=0; i<batch.length; i+=2) {
+					receive(batch[i], batch[i+1], arena, reached, searchQueue);
+				}
+				this.work.decrementAndGet();
+			}
+
+			if (searchQueue.isEmpty()) {
+
+				for (int owner=0; owner<this.threads; owner++) {
+					send(owner, batches, batchSizes);
+				}
+
+				if (extending) {
+					extending = false;
+
+					// the last work has ended, so the parked threads are woken up to end too
+					if (this.work.decrementAndGet() == 0) {
+						for (Thread worker : this.workers) LockSupport.unpark(worker);
+					}
+				}
+				if (this.work.get() == 0) break;
+
+				// a batch sent to this thread or the end of the search unparks it
+				if (queue.isEmpty()) LockSupport.park(this);
+				continue;
+			}
+
+			int state = searchQueue.poll();
+			long list = arena.getList(state);
+			int cost = arena.getCost(state);
+			int heuristic = arena.getHeuristic(state);
+			int operator = arena.getTransitionOperator(state);
+
+			// skip the states reached again with a lower cost and the states that cannot beat the incumbent
+			if (reached.get(list) != state || cost + heuristic >= this.incumbent.get()) continue;
+
+			extendCounter++;
+
+			// apply the transition operators T(k) where 1<k<=N
+			for (int k=2; k<=Search.N; k++) {
+
+				// applying the previous T(k) again would return to the parent
+				if (k == operator) continue;
+
+				long transition = State.reverse(list, k);
+				int transitionHeuristic = Search.heuristic.update(list, heuristic, k);
+				statesCounter++;
+
+				if (cost + 1 + transitionHeuristic >= this.incumbent.get()) continue;
+
+				int owner = owner(transition);
+
+				if (owner == id) {
+					receive(transition, pack(cost + 1, transitionHeuristic, k), arena, reached, searchQueue);
+				}
+				else {
+					batches[owner][2*batchSizes[owner]] = transition;
+					batches[owner][2*batchSizes[owner]+1] = pack(cost + 1, transitionHeuristic, k);
+
+					if (++batchSizes[owner] == BATCH_SIZE) send(owner, batches, batchSizes);
+				}
+			}
+
+			if (extendCounter % FLUSH_EXTENDS == 0) {
+				for (int owner=0; owner<this.threads; owner++) {
+					send(owner, batches, batchSizes);
+				}
+			}
+		}
+
+		this.extendCounter.addAndGet(extendCounter);
+		this.statesCounter.addAndGet(statesCounter);
+	}
+
+
+	/**
+	 * Sends the states not sent yet to a thread as a batch (nothing if there are none)
+	 *
+	 * @param owner: the thread the states are sent to
+	 * @param batches: the states not sent yet to each thread
+	 * @param batchSizes: the number of states not sent yet to each thread
+	 */
+	private void send(int owner, long[][] batches, int[] batchSizes) {
+
+		if (batchSizes[owner] == 0) return;
+
+		this.work.incrementAndGet();
+		this.queues.get(owner).add(Arrays.copyOf(batches[owner], 2 * batchSizes[owner]));
+		batchSizes[owner] = 0;
+
+		LockSupport.unpark(this.workers[owner]);
+	}
+
+
+	/**
+	 * Adds a state to the search queue of its owner if no lower cost has been found for it
+	 *
+	 * @param list: the packed list of the state
+	 * @param info: g(n), h(n) and the transition operator of the state (see pack())
+	 * @param arena: the states of the owner
+	 * @param reached: the state with the lowest cost found for each list of the owner
+	 * @param searchQueue: the search queue of the owner
+	 */
+	private void receive(long list, long info, NodeArena arena, NodeSet reached, BucketQueue searchQueue) {
+
+		int cost = (int) (info >>> 16);
+		int heuristic = (int) (info >>> 8) & 0xFF;
+		int previous = reached.get(list);
+
+		if (previous != -1 && arena.getCost(previous) <= cost) return;
+
+		int state = arena.add(list, -1, (int) info & 0xFF, cost, heuristic);
+		reached.put(state);
+
+		if (list == Search.finalList) {
+
+			// lower the incumbent
+			int incumbent = this.incumbent.get();
+
+			while (cost < incumbent && !this.incumbent.compareAndSet(incumbent, cost)) {
+				incumbent = this.incumbent.get();
+			}
+			return;
+		}
+
+		searchQueue.add(state, cost, cost + heuristic);
+	}
+}
+
+
+/*
+	Cache of the solved states: every state on a lowest cost path has a lowest cost path to the final state
+	that is the rest of the path, so the cost and the first transition operator of that rest are kept for every state
+	of every path found by a search with an admissible heuristic. Following the transition operators of the cache
+	from a state gives a lowest cost path without any search.
+	The cache holds the most recently used states up to CAPACITY (least recently used states are removed first).
+	It is shared by the threads of the batch and server modes, so every method is synchronized.
+	If the file solutions.bin exists the cache is loaded from it at startup and saved to it before the program ends,
+	so the cache is kept between runs (create an empty solutions.bin to start keeping it).
+	Only lists of at most 16 ints are cached, since the packed list is the key (see State).
+*/
+class SolutionCache {
+
+	public static final int CAPACITY = 1 << 18;	// about 25MB
+	public static final String FILE_NAME = "solutions.bin";
+	public static final int MISSING = -1;	// returned by getDistance() for a state that is not in the cache
+
+	// packed list -> cost to the final state << 8 | first transition operator (0 for the final state), in the order of use
+	private final LinkedHashMap<Long, Short> entries = new LinkedHashMap<Long, Short>(16, 0.75f, true);
+	private final boolean persistent;	// saved to FILE_NAME
+
+
+	/**
+	 * @param persistent: true to save the cache to FILE_NAME
+	 */
+	public SolutionCache(boolean persistent) {
+
+		this.persistent = persistent;
+	}
+
+
+	/**
+	 * @param list: the packed list of a state
+	 * @return the lowest cost of the state to the final state or MISSING
+	 */
+	public synchronized int getDistance(long list) {
+
+		Short entry = this.entries.get(list);
+
+		return (entry == null) ? MISSING : entry >> 8;
+	}
+
+
+	/**
+	 * @param list: the packed list of a state
+	 * @return the transition operators of a lowest cost path from the state to the final state or null if it is not in the cache
+	 *         (the states before a part of the path that has been removed are removed too, so they are not found again)
+	 */
+	public synchronized int[] getPath(long list) {
+
+		Short entry = this.entries.get(list);
+
+		if (entry == null) return null;
+
+		long first = list;
+		int[] path = new int[entry >> 8];
+
+		for (int i=0; i<path.length; i++) {
+
+			path[i] = entry & 0xFF;
+			list = State.reverse(list, path[i]);
+			entry = this.entries.get(list);
+
+			// part of the path has been removed from the cache
+			if (entry == null || (entry >> 8) != path.length-i-1) {
+
+				for (int j=0; j<=i; j++) {
+					this.entries.remove(first);
+					first = State.reverse(first, path[j]);
+				}
+				return null;
+			}
+		}
+		return path;
+	}
+
+
+	/**
+	 * Adds every state of a lowest cost path to the cache
+	 * 
+	 * @param list: the packed list of the first state of the path
+	 * @param path: the transition operators of the path
+	 */
+	public synchronized void putPath(long list, int[] path) {
+
+		for (int i=0; i<path.length; i++) {
+			put(list, path.length-i, path[i]);
+			list = State.reverse(list, path[i]);
+		}
+		put(list, 0, 0);
+	}
+
+
+	private void put(long list, int distance, int operator) {
+
+		this.entries.put(list, (short) (distance << 8 | operator));
+
+		// remove the least recently used state
+		if (this.entries.size() > CAPACITY) {
+			Iterator<Long> eldest = this.entries.keySet().iterator();
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+
+	/**
+	 * @return the cache loaded from FILE_NAME if it exists - otherwise an empty cache that is not saved
+	 */
+	public static SolutionCache load() {
+
+		File file = new File(FILE_NAME);
+
+		if (!file.exists()) return new SolutionCache(false);
+
+		SolutionCache cache = new SolutionCache(true);
+
+		// an empty file starts an empty cache
+		if (file.length() == 0) return cache;
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			int size = input.readInt();
+
+			for (int i=0; i<size; i++) {
+				long list = input.readLong();
+				cache.entries.put(list, input.readShort());
+			}
+		}
+		catch (IOException e) {
+			System.out.print("The solution cache could not be loaded from " + FILE_NAME + ", starting with an empty cache\n");
+			cache.entries.clear();
+		}
+		return cache;
+	}
+
+
+	/**
+	 * Saves the cache to FILE_NAME (least recently used states first) if it was loaded from it
+	 */
+	public synchronized void save() {
+
+		if (!this.persistent) return;
+
+		// write to a temporary file first, so that a half written cache is never loaded
+		File temp = new File(FILE_NAME + ".tmp");
+
+		try {
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+
+				output.writeInt(this.entries.size());
+
+				// get() would change the order of use, so the entries are read directly
+				for (Map.Entry<Long, Short> entry : this.entries.entrySet()) {
+					output.writeLong(entry.getKey());
+					output.writeShort(entry.getValue());
+				}
+			}
+			Files.move(temp.toPath(), new File(FILE_NAME).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			System.out.print("The solution cache could not be saved to " + FILE_NAME + "\n");
+		}
+	}
+}
+
+
+/*
+	idastar (iterative deepening A*) on a single list.
+	A depth first search is run that skips every state with g(n)+h(n) greater than a bound.
+	If no final state is found the bound is raised to the lowest g(n)+h(n) that was skipped and the search is run again.
+	Only the current path is kept in memory: T(k) is applied to a single list and applied again to undo it.
+	h(n) is the gap heuristic (see GapHeuristic), which is admissible, so the path found has the lowest cost.
+	Every search keeps its own list and counters, so several lists can be solved at the same time (see Search.batch()).
+	For lists of at most 16 ints the solution cache is checked at the states close to the initial state
+	(checking every state would slow the search down far more than the rare cached states deep in the search save):
+	a cached state has an exact h(n), so the search either finishes with the cached path or skips the state.
+	The path found is added to the cache.
+*/
+class IdaStar {
+
+	public static final int FOUND = -1;	// returned by search() once a final state has been found
+	public static final int TIMEOUT = -2;	// returned by search() once the time limit has passed
+	private static final int CLOCK_INTERVAL = 4096;	// the number of extends between checks of the time limit
+	private static final int CACHE_DEPTH = 4;	// the highest g(n) of the states checked in the solution cache
+
+	private final int n;
+	private final int[] list;	// the current list followed by N+1 (used by the gap heuristic)
+	private final int[] path;	// the transition operators of the current path (any list can be sorted with fewer than 2N)
+	private final long deadline;	// System.nanoTime() after which the search stops, 0 for no time limit
+	private final boolean progress;	// print the bound while searching
+	private final SolutionCache cache;	// null if the list is not cached
+	private int length;	// the number of transition operators of the path found
+	private long extendCounter = 0;
+	private long statesCounter = 0;
+
+
+	/**
+	 * @param initialList: the ints of the initial state
+	 * @param timeout: the time limit in ms, 0 for no time limit
+	 * @param progress: true to print the bound while searching
+	 * @param cache: the solution cache or null to search without it
+	 */
+	public IdaStar(int[] initialList, long timeout, boolean progress, SolutionCache cache) {
+
+		this.n = initialList.length;
+		this.list = Arrays.copyOf(initialList, this.n+1);
+		this.list[this.n] = this.n+1;
+		this.path = new int[2*this.n+2];
+		this.deadline = (timeout > 0) ? System.nanoTime() + timeout * 1000000 : 0;
+		this.progress = progress;
+		this.cache = (initialList.length <= Search.MAX_N) ? cache : null;
+	}
+
+
+	public long getExtendCounter() {
+		return this.extendCounter;
+	}
+
+	public long getStatesCounter() {
+		return this.statesCounter;
+	}
+
+
+	/**
+	 * Runs the search
+	 * 
+	 * @return the transition operators of a lowest cost path or null if the time limit has passed
+	 */
+	public int[] solve() {
+
+		int heuristic = 0;
+
+		for (int i=0; i<this.n; i++) {
+			if (Lists.isGap(this.list[i], this.list[i+1])) heuristic++;
+		}
+
+		int bound = heuristic;
+		long packed = (this.cache == null) ? 0 : State.pack(Arrays.copyOf(this.list, this.n));
+
+		while (true) {
+
+			if (this.progress) System.out.print("\rSearching . . . g(n)+h(n) <= " + bound + ", " + this.extendCounter + " extends so far");
+
+			int result = search(0, heuristic, bound, 0, packed);
+
+			if (result == TIMEOUT) return null;
+
+			if (result == FOUND) {
+				int[] path = Arrays.copyOf(this.path, this.length);
+				if (this.cache != null) this.cache.putPath(packed, path);
+				return path;
+			}
+
+			bound = result;
+		}
+	}
+
+
+	/**
+	 * A method that runs the depth first search from the current list
+	 * 
+	 * @param cost: g(n) of the current list
+	 * @param heuristic: h(n) of the current list
+	 * @param bound: the highest g(n)+h(n) to be searched
+	 * @param previous: the transition operator T(k) that led to the current list (0 for the initial state)
+	 * @param packed: the packed current list (0 if the list is not checked in the cache)
+	 * @return FOUND if a final state has been found, TIMEOUT if the time limit has passed - otherwise the lowest g(n)+h(n) greater than the bound
+	 */
+	private int search(int cost, int heuristic, int bound, int previous, long packed) {
+
+		if (cost + heuristic > bound) {
+			return cost + heuristic;
+		}
+
+		// the only list without gaps is the final state
+		if (heuristic == 0) {
+			this.length = cost;
+			return FOUND;
+		}
+
+		if (this.cache != null && cost <= CACHE_DEPTH) {
+
+			int distance = this.cache.getDistance(packed);
+
+			if (distance != SolutionCache.MISSING) {
+
+				if (cost + distance > bound) return cost + distance;
+
+				// finish with the cached path (unless part of it has just been removed from the cache)
+				int[] rest = this.cache.getPath(packed);
+
+				if (rest != null) {
+					System.arraycopy(rest, 0, this.path, cost, rest.length);
+					this.length = cost + rest.length;
+					return FOUND;
+				}
+			}
+		}
+
+		if (this.deadline != 0 && this.extendCounter % CLOCK_INTERVAL == 0 && System.nanoTime() - this.deadline > 0) {
+			return TIMEOUT;
+		}
+
+		int min = Integer.MAX_VALUE;
+		int result;
+		this.extendCounter++;
+
+		// apply the transition operators T(k) where 1<k<=N
+		for (int k=2; k<=this.n; k++) {
+
+			// applying the previous T(k) again would return to the parent
+			if (k == previous) continue;
+
+			// the only adjacency T(k) changes is the one between positions k-1 and k
+			int newHeuristic = heuristic;
+			if (Lists.isGap(this.list[k-1], this.list[k])) newHeuristic--;
+			if (Lists.isGap(this.list[0], this.list[k])) newHeuristic++;
+
+			Lists.reverse(this.list, k);
+			this.path[cost] = k;
+			this.statesCounter++;
+
+			result = search(cost+1, newHeuristic, bound, k, (this.cache == null || cost >= CACHE_DEPTH) ? 0 : State.reverse(packed, k));
+
+			Lists.reverse(this.list, k);	// undo T(k)
+
+			if (result == FOUND || result == TIMEOUT) return result;
+			if (result < min) min = result;
+		}
+		return min;
+	}
+}
+
+
+/*
+	External memory search (breadth first iterative deepening A*), so the lists that can be searched are bounded by the disk instead of the heap.
+	A breadth first search is run one layer of g(n) at a time, skipping every state with g(n)+h(n) greater than a bound.
+	If no final state is found the bound is raised to the lowest g(n)+h(n) that was skipped and the search is run again.
+
+	Every layer is kept on the disk as a file of its sorted packed lists, which is read one block at a time (see LayerFile).
+	The new states are sorted in a buffer of BUFFER_SIZE lists that is written to a run file whenever it is full,
+	then the runs are merged into the file of the next layer. The duplicates are only removed while merging (delayed duplicate detection):
+	T(k) is its own inverse, so a state found again is either in the next layer, in the layer being extended or in the one before it
+	(a state of an earlier layer would have found it before), and only these layers are merged against.
+	With a heuristic that is not consistent (legacy) a state may be found again in a later layer, which only costs extends.
+
+	The layers of the last search are kept until the path is found by going back from the final state:
+	the parent of a state of layer g(n) is the state of layer g(n)-1 with some T(k) applied, found with a binary search of its file.
+*/
+class ExternalSearch {
+
+	public static final int BUFFER_SIZE = 1 << 22;	// the new states sorted in memory at a time (32MB)
+
+	private final long initialList;
+	private final File directory;	// the layer and run files
+	private final long[] buffer = new long[BUFFER_SIZE];	// the new states not written to a run yet
+	private int buffered = 0;
+	private final ArrayList<File> runs = new ArrayList<File>();	// the run files of the next layer
+	private final ArrayList<File> layers = new ArrayList<File>();	// the layer files of the current search
+	private int nextBound;	// the lowest g(n)+h(n) skipped by the current search
+	private long extendCounter = 0;
+	private long statesCounter = 0;
+
+
+	/**
+	 * @param initialList: the packed list of the initial state
+	 * @param directory: an empty directory for the layer and run files
+	 */
+	public ExternalSearch(long initialList, File directory) {
+
+		this.initialList = initialList;
+		this.directory = directory;
+	}
+
+
+	public long getExtendCounter() {
+		return this.extendCounter;
+	}
+
+	public long getStatesCounter() {
+		return this.statesCounter;
+	}
+
+
+	/**
+	 * Runs the search, deleting every file it writes
+	 * 
+	 * @return the transition operators of the path found or null if there is none
+	 * @throws IOException if a layer or run file cannot be read or written
+	 */
+	public int[] solve() throws IOException {
+
+		int bound = Search.heuristic.estimate(this.initialList);
+
+		try {
+			while (true) {
+
+				int cost = search(bound);
+
+				if (cost >= 0) return findPath(cost);
+				if (this.nextBound == Integer.MAX_VALUE) return null;
+
+				bound = this.nextBound;
+			}
+		}
+		finally {
+			deleteFiles();
+		}
+	}
+
+
+	/**
+	 * A method that runs the breadth first search from the initial state
+	 * 
+	 * @param bound: the highest g(n)+h(n) to be searched
+	 * @return the cost of the final state or -1 if no final state has been found
+	 * @throws IOException if a layer or run file cannot be read or written
+	 */
+	private int search(int bound) throws IOException {
+
+		deleteFiles();
+		this.nextBound = Integer.MAX_VALUE;
+
+		if (this.initialList == Search.finalList) return 0;
+
+		File initial = newFile("layer0.bin");
+		this.layers.add(initial);	// registered before it is written, so a failed write is deleted too
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(initial)))) {
+			output.writeLong(this.initialList);
+		}
+
+		LayerFile previous = null;
+		LayerFile current = new LayerFile(initial);
+
+		// the layers are closed before the search ends, so that their files can be deleted
+		try {
+			for (int cost=0; current.size() > 0; cost++) {
+
+				System.out.print("\rSearching . . . g(n)+h(n) <= " + bound + ", g(n) = " + cost + ", " + current.size() + " states in the layer, " + this.extendCounter + " extends so far");
+
+				// STEP 1. extend every state of the layer into the buffer and the runs
+				for (long i=0; i<current.size(); i++) {
+
+					long list = current.get(i);
+					int heuristic = Search.heuristic.estimate(list);
+					this.extendCounter++;
+
+					// apply the transition operators T(k) where 1<k<=N
+					for (int k=2; k<=Search.N; k++) {
+
+						long transition = State.reverse(list, k);
+						int priority = cost + 1 + Search.heuristic.update(list, heuristic, k);
+						this.statesCounter++;
+
+						if (transition == Search.finalList) return cost + 1;
+
+						if (priority > bound) {
+							this.nextBound = Math.min(this.nextBound, priority);
+							continue;
+						}
+
+						if (this.buffered == BUFFER_SIZE) writeRun();
+						this.buffer[this.buffered++] = transition;
+					}
+				}
+				writeRun();
+
+				// STEP 2. merge the runs into the next layer without the states of the current and the previous layer
+				File next = newFile("layer" + (cost+1) + ".bin");
+				this.layers.add(next);
+
+				merge(next, current, previous);
+
+				if (previous != null) previous.close();
+				previous = current;
+				current = new LayerFile(next);
+			}
+			return -1;
+		}
+		finally {
+			current.close();
+			if (previous != null) previous.close();
+		}
+	}
+
+
+	/**
+	 * A method that sorts the buffer and writes its states to a new run file (without duplicates)
+	 * 
+	 * @throws IOException if the run file cannot be written
+	 */
+	private void writeRun() throws IOException {
+
+		if (this.buffered == 0) return;
+
+		Arrays.sort(this.buffer, 0, this.buffered);
+
+		File run = newFile("run" + this.runs.size() + ".bin");
+		this.runs.add(run);
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+
+			for (int i=0; i<this.buffered; i++) {
+				if (i == 0 || this.buffer[i] != this.buffer[i-1]) output.writeLong(this.buffer[i]);
+			}
+		}
+		this.buffered = 0;
+	}
+
+
+	/**
+	 * A method that merges the sorted runs into a layer file, removing the duplicates and the states of the given layers.
+	 * The runs are deleted once merged.
+	 * 
+	 * @param layer: the layer file to be written
+	 * @param current: the layer that was extended
+	 * @param previous: the layer before it (null for the first layer)
+	 * @throws IOException if a run or the layer file cannot be read or written
+	 */
+	private void merge(File layer, LayerFile current, LayerFile previous) throws IOException {
+
+		int count = this.runs.size();
+		DataInputStream[] inputs = new DataInputStream[count];
+		long[] heads = new long[count];	// the smallest list left in each run
+		long[] left = new long[count];	// the lists left in each run
+		long currentIndex = 0;
+		long previousIndex = 0;
+		long last = 0;	// the last list merged
+		boolean merged = false;	// false until the first list is merged
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(layer)))) {
+
+			for (int i=0; i<count; i++) {
+				inputs[i] = new DataInputStream(new BufferedInputStream(new FileInputStream(this.runs.get(i))));
+				left[i] = this.runs.get(i).length() / Long.BYTES;
+				if (left[i] > 0) heads[i] = inputs[i].readLong();
+			}
+
+			while (true) {
+
+				// find the run with the smallest list left (the number of runs is small, so a linear scan is enough)
+				int min = -1;
+
+				for (int i=0; i<count; i++) {
+					if (left[i] > 0 && (min == -1 || heads[i] < heads[min])) min = i;
+				}
+
+				if (min == -1) break;
+
+				long list = heads[min];
+
+				if (--left[min] > 0) heads[min] = inputs[min].readLong();
+
+				if (merged && list == last) continue;
+				last = list;
+				merged = true;
+
+				// the layers are sorted too, so they are only read once
+				while (currentIndex < current.size() && current.get(currentIndex) < list) currentIndex++;
+				if (currentIndex < current.size() && current.get(currentIndex) == list) continue;
+
+				if (previous != null) {
+					while (previousIndex < previous.size() && previous.get(previousIndex) < list) previousIndex++;
+					if (previousIndex < previous.size() && previous.get(previousIndex) == list) continue;
+				}
+
+				output.writeLong(list);
+			}
+		}
+		finally {
+			for (int i=0; i<count; i++) {
+				if (inputs[i] != null) inputs[i].close();
+			}
+		}
+
+		for (File run : this.runs) delete(run);
+		this.runs.clear();
+	}
+
+
+	/**
+	 * A method that finds the path from the initial state to the final state by going back through the layers
+	 * 
+	 * @param cost: the cost of the final state
+	 * @return the transition operators of the path
+	 * @throws IOException if a layer file cannot be read
+	 */
+	private int[] findPath(int cost) throws IOException {
+
+		int[] path = new int[cost];
+		long list = Search.finalList;
+
+		for (int i=cost-1; i>=0; i--) {
+
+			try (LayerFile layer = new LayerFile(this.layers.get(i))) {
+
+				// the parent is in the previous layer
+				for (int k=2; k<=Search.N; k++) {
+
+					if (layer.contains(State.reverse(list, k))) {
+						path[i] = k;
+						list = State.reverse(list, k);
+						break;
+					}
+				}
+			}
+		}
+		return path;
+	}
+
+
+	private File newFile(String name) {
+
+		return new File(this.directory, name);
+	}
+
+
+	private void deleteFiles() {
+
+		for (File file : this.layers) delete(file);
+		for (File run : this.runs) delete(run);
+
+		this.layers.clear();
+		this.runs.clear();
+		this.buffered = 0;
+	}
+
+
+	// a file that cannot be deleted is reported, since its disk space is not released
+	private static void delete(File file) {
+
+		if (!file.delete() && file.exists()) System.out.print("\nThe file " + file + " could not be deleted\n");
+	}
+}
+
+
+/*
+	A file of sorted packed lists read through its channel one block of BLOCK_SIZE lists at a time.
+	The layers are mostly read in order (extended, merged against), so a single block buffer is enough,
+	and a binary search only reads the blocks it visits. Nothing is mapped into memory, so once the file is closed
+	it can be deleted at once and its disk space is released.
+*/
+class LayerFile implements Closeable {
+
+	private static final int BLOCK_SIZE = 1 << 16;	// the lists read at a time (512KB)
+
+	private final RandomAccessFile input;
+	private final long size;
+	private final ByteBuffer bytes = ByteBuffer.allocate(BLOCK_SIZE * Long.BYTES);
+	private final LongBuffer block = this.bytes.asLongBuffer();	// the lists of the block read last
+	private long blockStart = -1;	// the index of the first list of the block, -1 before the first read
+	private int blockLength = 0;
+
+
+	/**
+	 * @param file: a file of sorted packed lists
+	 * @throws IOException if the file cannot be opened
+	 */
+	public LayerFile(File file) throws IOException {
+
+		this.input = new RandomAccessFile(file, "r");
+		this.size = this.input.length() / Long.BYTES;
+	}
+
+
+	public long size() {
+		return this.size;
+	}
+
+
+	/**
+	 * @param i: the index of a list in the file
+	 * @return the list
+	 * @throws IOException if the file cannot be read
+	 */
+	public long get(long i) throws IOException {
+
+		if (i < this.blockStart || i >= this.blockStart + this.blockLength) read(i - i % BLOCK_SIZE);
+
+		return this.block.get((int) (i - this.blockStart));
+	}
+
+
+	/**
+	 * @param list: a packed list
+	 * @return true if the list is in the file (binary search)
+	 * @throws IOException if the file cannot be read
+	 */
+	public boolean contains(long list) throws IOException {
+
+		long low = 0;
+		long high = this.size - 1;
+
+		while (low <= high) {
+
+			long middle = (low + high) >>> 1;
+			long value = get(middle);
+
+			if (value < list) low = middle + 1;
+			else if (value > list) high = middle - 1;
+			else return true;
+		}
+		return false;
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		this.input.close();
+	}
+
+
+	// reads the block that starts at the given list
+	private void read(long start) throws IOException {
+
+		FileChannel channel = this.input.getChannel();
+		int length = (int) Math.min(this.size - start, BLOCK_SIZE);
+
+		this.bytes.clear().limit(length * Long.BYTES);
+
+		while (this.bytes.hasRemaining()) {
+			if (channel.read(this.bytes, start * Long.BYTES + this.bytes.position()) < 0) throw new IOException("unexpected end of the layer file");
+		}
+
+		this.blockStart = start;
+		this.blockLength = length;
+	}
+}
+
+
+/*
+	Frontier search (breadth first heuristic search) that keeps no closed queue: only the layer of g(n) being extended,
+	the layer before it and the next layer are kept in memory, so the memory needed is proportional to the width of the search
+	instead of the number of states extended.
+	A state found again is either in one of these layers or was skipped: T(k) is its own inverse, so the parent of a state
+	is in the layer before it and a state of an earlier layer would have found it before, and the gap heuristic is consistent,
+	so a state skipped by the bound is never kept later at a higher g(n).
+	Every state with g(n)+h(n) greater than a bound is skipped. The bound starts at h(n) of the initial state (a lower bound of the cost)
+	and is raised to the lowest g(n)+h(n) skipped until a final state is found, so the bound is the lowest cost once it is found.
+	An upper bound of the cost is known before the search from a greedy path (see greedyPath()): the bound is never raised to it,
+	since no search is needed to find a path of that cost, so the greedy path is returned once no cheaper path is left.
+
+	Without the earlier layers the path cannot be followed back, so it is found by divide and conquer instead:
+	every state past the middle layer keeps the state of the middle layer it was found from (its relay).
+	The relay of the final state is on a lowest cost path, and the paths from the initial state to the relay and from the relay
+	to the final state are found with the same search, with the lowest cost as the bound.
+	T(k) moves positions, not integers, so a path to any list is a path to the final state once the integers are renamed
+	(see relabel()), and the gap heuristic is used for every part of the path.
+*/
+class FrontierSearch {
+
+	private final Heuristic heuristic = new GapHeuristic();
+	private final long initialList;
+	private int cost;	// the cost of the final state found by search()
+	private long relay;	// the state of the middle layer on the path to the final state found by search()
+	private int nextBound;	// the lowest g(n)+h(n) skipped by search()
+	private long extendCounter = 0;
+	private long statesCounter = 0;
+
+
+	/**
+	 * @param initialList: the packed list of the initial state
+	 */
+	public FrontierSearch(long initialList) {
+
+		this.initialList = initialList;
+	}
+
+
+	public long getExtendCounter() {
+		return this.extendCounter;
+	}
+
+	public long getStatesCounter() {
+		return this.statesCounter;
+	}
+
+
+	/**
+	 * Runs the search
+	 * 
+	 * @return the transition operators of a lowest cost path
+	 */
+	public int[] solve() {
+
+		int[] greedyPath = greedyPath(this.initialList);
+		int bound = this.heuristic.estimate(this.initialList);
+
+		// the bounds below the cost of the greedy path (an upper bound of the lowest cost)
+		while (bound < greedyPath.length) {
+
+			if (search(this.initialList, bound)) return findPath(this.initialList, this.cost, this.relay);
+
+			bound = this.nextBound;
+		}
+		return greedyPath;
+	}
+
+
+	/**
+	 * A method that finds a path without a search: every integer from N down to 2 is moved to the front of the list
+	 * and then to its position (at most 2N-3 transition operators)
+	 * 
+	 * @param list: a packed list
+	 * @return the transition operators of the path
+	 */
+	static int[] greedyPath(long list) {
+
+		int[] path = new int[2 * Search.N];
+		int length = 0;
+
+		for (int size=Search.N; size>1; size--) {
+
+			int position = 0;
+
+			while (State.get(list, position) != size) position++;
+
+			if (position == size-1) continue;
+
+			if (position > 0) {
+				path[length++] = position + 1;
+				list = State.reverse(list, position + 1);
+			}
+			path[length++] = size;
+			list = State.reverse(list, size);
+		}
+		return Arrays.copyOf(path, length);
+	}
+
+
+	/**
+	 * A method that finds a lowest cost path by divide and conquer
+	 * 
+	 * @param list: the packed list the path starts from
+	 * @param cost: the lowest cost from the list to the final state
+	 * @param relay: the state of the middle layer on a lowest cost path (found by search() with the cost as the bound)
+	 * @return the transition operators of the path
+	 * @throws IllegalStateException if a part of the path is not found with its cost (the cost or the relay is wrong)
+	 */
+	private int[] findPath(long list, int cost, long relay) {
+
+		int[] path = new int[cost];
+
+		if (cost == 0) return path;
+
+		// a single transition operator is found without a search
+		if (cost == 1) {
+
+			for (int k=2; k<=Search.N; k++) {
+				if (State.reverse(list, k) == Search.finalList) path[0] = k;
+			}
+			return path;
+		}
+
+		int middle = cost / 2;
+
+		// the path from the list to the relay is the path from the renamed list to the final state
+		long renamed = relabel(list, relay);
+
+		if (!search(renamed, middle)) throw new IllegalStateException("no path of cost " + middle + " to the relay has been found");
+		System.arraycopy(findPath(renamed, middle, this.relay), 0, path, 0, middle);
+
+		if (!search(relay, cost - middle)) throw new IllegalStateException("no path of cost " + (cost - middle) + " from the relay has been found");
+		System.arraycopy(findPath(relay, cost - middle, this.relay), 0, path, middle, cost - middle);
+
+		return path;
+	}
+
+
+	/**
+	 * A method that runs the breadth first search from a list to the final state
+	 * 
+	 * @param list: the packed list of the initial state of the search
+	 * @param bound: the highest g(n)+h(n) to be searched
+	 * @return true if a final state has been found (this.cost and this.relay are set) - otherwise false (this.nextBound is set)
+	 */
+	private boolean search(long list, int bound) {
+
+		int middle = bound / 2;	// the layer of the relays
+		FrontierLayer previous = new FrontierLayer();
+		FrontierLayer current = new FrontierLayer();
+
+		this.nextBound = Integer.MAX_VALUE;
+
+		if (list == Search.finalList) {
+			this.cost = 0;
+			this.relay = list;
+			return true;
+		}
+
+		current.add(list, list);
+
+		for (int cost=0; current.size() > 0 && cost < bound; cost++) {
+
+			FrontierLayer next = new FrontierLayer();
+
+			System.out.print("\rSearching . . . g(n)+h(n) <= " + bound + ", g(n) = " + cost + ", " + current.size() + " states in the layer, " + this.extendCounter + " extends so far");
+
+			for (int i=0; i<current.capacity(); i++) {
+
+				long state = current.getList(i);
+
+				if (state == FrontierLayer.EMPTY) continue;
+
+				int heuristic = this.heuristic.estimate(state);
+				long relay = current.getRelay(i);
+				this.extendCounter++;
+
+				// apply the transition operators T(k) where 1<k<=N
+				for (int k=2; k<=Search.N; k++) {
+
+					long transition = State.reverse(state, k);
+
+					// the parent and the states of the same layer have already been found
+					if (previous.contains(transition) || current.contains(transition)) continue;
+
+					int priority = cost + 1 + this.heuristic.update(state, heuristic, k);
+					this.statesCounter++;
+
+					if (priority > bound) {
+						this.nextBound = Math.min(this.nextBound, priority);
+						continue;
+					}
+
+					long transitionRelay = (cost+1 == middle) ? transition : relay;
+
+					if (transition == Search.finalList) {
+						this.cost = cost + 1;
+						this.relay = transitionRelay;
+						return true;
+					}
+
+					next.add(transition, transitionRelay);
+				}
+			}
+
+			previous = current;
+			current = next;
+		}
+		return false;
+	}
+
+
+	/**
+	 * A method that renames the integers of a list, so that the given goal becomes the final state
+	 * 
+	 * @param list: a packed list
+	 * @param goal: the packed list that is renamed to the final state
+	 * @return the packed list with every integer renamed to its position in the goal
+	 */
+	static long relabel(long list, long goal) {
+
+		int[] position = new int[Search.N];
+		long renamed = 0;
+
+		for (int i=0; i<Search.N; i++) {
+			position[State.get(goal, i) - 1] = i;
+		}
+
+		for (int i=0; i<Search.N; i++) {
+			renamed |= (long) position[State.get(list, i) - 1] << (4*i);
+		}
+		return renamed;
+	}
+}
+
+
+/*
+	Hash map of the states of a layer of FrontierSearch to their relays (open addressing with linear probing).
+	The packed list 0 would have every integer equal to 1, so it marks an empty slot.
+*/
+class FrontierLayer {
+
+	public static final long EMPTY = 0;
+
+	private long[] lists = new long[1 << 10];
+	private long[] relays = new long[1 << 10];
+	private int size = 0;
+
+	public int size() {
+		return this.size;
+	}
+
+	public int capacity() {
+		return this.lists.length;
+	}
+
+	// the list in a slot (EMPTY for an empty slot)
+	public long getList(int slot) {
+		return this.lists[slot];
+	}
+
+	public long getRelay(int slot) {
+		return this.relays[slot];
+	}
+
+	// the first slot of a list (the length of the table is always a power of 2)
+	private int slot(long list) {
+		return (int) ((list * 0x9E3779B97F4A7C15L) >>> 32) & (this.lists.length - 1);
+	}
+
+	/**
+	 * @param list: a packed list
+	 * @return true if the list is in the layer
+	 */
+	public boolean contains(long list) {
+
+		for (int i=slot(list); this.lists[i] != EMPTY; i=(i+1) & (this.lists.length-1)) {
+			if (this.lists[i] == list) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds a list to the layer, unless it is already in it
+	 * 
+	 * @param list: a packed list
+	 * @param relay: the relay of the list
+	 */
+	public void add(long list, long relay) {
+
+		// keep the table at most half full
+		if (2 * (this.size + 1) > this.lists.length) {
+
+			long[] lists = this.lists;
+			long[] relays = this.relays;
+
+			this.lists = new long[2 * lists.length];
+			this.relays = new long[2 * relays.length];
+
+			for (int i=0; i<lists.length; i++) {
+				if (lists[i] != EMPTY) insert(lists[i], relays[i]);
+			}
+		}
+
+		if (insert(list, relay)) this.size++;
+	}
+
+	// returns false if the list is already in the table
+	private boolean insert(long list, long relay) {
+
+		int i = slot(list);
+
+		while (this.lists[i] != EMPTY) {
+			if (this.lists[i] == list) return false;
+			i = (i+1) & (this.lists.length-1);
+		}
+		this.lists[i] = list;
+		this.relays[i] = relay;
+		return true;
+	}
+}
+
+
+class Search {
+    
+
+	public static String searchAlgorithm;
+	public static Heuristic heuristic = new GapHeuristic();	// h(n) of the alphastar algorithm
+	public static State initialState;
+	public static int[] initialList;	// the integers of the initial state (not packed, used by idastar)
+	public static int N;
+	public static int extendCounter = 0;
+	public static int statesCounter = 1; 
+	public static String line = "=====================================================\n";
+	public static final int MAX_N = 16;	// the lists of states are packed into a long (see State)
+	public static long finalList;	// packed list of the final state
+	public static ArrayList<State> extendedStates = new ArrayList<State>();	// the parents of the states, indexed by State.getParent()
+	public static String batchInstances;	// the file of the batch mode, - for the standard input
+	public static int batchThreads = Runtime.getRuntime().availableProcessors();	// the threads of the batch, server and hdastar modes
+	public static long batchTimeout = 0;	// the time limit of each list of the batch and server modes in ms, 0 for no time limit
+	public static String batchFormat = "csv";	// the format of the results of the batch and server modes
+	public static int port = 7878;	// the port of the server and client modes
+	public static SolutionCache cache;	// the solutions found so far (see SolutionCache), null in the modes that do not use it
+	public static int incumbentState = -1;	// the cached state (index in the NodeArena) with the lowest g(n) + cached cost found by search() so far
+	public static int incumbentCost = Integer.MAX_VALUE;	// g(n) + cached cost of the incumbent state
+
+
+	/**
+	 * A method that checks whether the command line arguments are valid
+	 * 
+	 * @param args: array of command line args
+	 * @return true for valid args - otherwise false
+	 */
+	private static boolean validateArgs(String[] args) {
+
+		if (args.length >= 2 && args.length <= 5 && args[0].equals("batch")) {
+
+			searchAlgorithm = args[0];
+			batchInstances = args[1];
+
+			try {
+				if (args.length > 2) batchThreads = Integer.parseInt(args[2]);
+				if (args.length > 3) batchTimeout = Long.parseLong(args[3]);
+			}
+			catch (NumberFormatException e) {
+				return false;
+			}
+
+			if (args.length > 4) batchFormat = args[4];
+
+			return batchThreads > 0 && batchTimeout >= 0 && (batchFormat.equals("csv") || batchFormat.equals("json"));
+		}
+
+		if (args.length >= 1 && args.length <= 5 && args[0].equals("server")) {
+
+			searchAlgorithm = args[0];
+
+			try {
+				if (args.length > 1) port = Integer.parseInt(args[1]);
+				if (args.length > 2) batchThreads = Integer.parseInt(args[2]);
+				if (args.length > 3) batchTimeout = Long.parseLong(args[3]);
+			}
+			catch (NumberFormatException e) {
+				return false;
+			}
+
+			if (args.length > 4) batchFormat = args[4];
+
+			return port > 0 && port < 65536 && batchThreads > 0 && batchTimeout >= 0 && (batchFormat.equals("csv") || batchFormat.equals("json"));
+		}
+
+		if ((args.length == 2 || args.length == 3) && args[0].equals("client")) {
+
+			searchAlgorithm = args[0];
+			batchInstances = args[1];
+
+			try {
+				if (args.length > 2) port = Integer.parseInt(args[2]);
+			}
+			catch (NumberFormatException e) {
+				return false;
+			}
+
+			return port > 0 && port < 65536;
+		}
+
+		if (args.length == 2 || (args.length == 3 && (args[0].equals("alphastar") || args[0].equals("hdastar") || args[0].equals("external"))) || (args.length == 4 && args[0].equals("hdastar"))) {
+
+			if (args[0].equals("ucs") || args[0].equals("alphastar") || args[0].equals("idastar") || args[0].equals("bidirectional") || args[0].equals("oracle") || args[0].equals("hdastar") || args[0].equals("external") || args[0].equals("frontier")) {
+
+				searchAlgorithm = args[0];	// save <search algorithm>
+
+				initialState = new State();	// new State object for the inital state
+				initialState.setCost(0);	// cost g(n) of the initial state is 0
+				String[] temp = args[1].split(",");	// temporarily split the <initial state> sequence to an array of strings
+				N = temp.length;	// the total number of ints N is equal to the length of the array
+
+				// only idastar does not pack the lists of the states
+				if (N > MAX_N && !searchAlgorithm.equals("idastar")) return false;
+				if (N > DistanceOracle.MAX_N && searchAlgorithm.equals("oracle")) return false;
+
+				ArrayList<Integer> list = new ArrayList<Integer>();
+				initialList = new int[N];
+
+				// transfer the temp array to an ArrayList<Integer>
+				for (int i=0; i<N; i++) {
+					list.add(Integer.parseInt(temp[i]));
+					initialList[i] = list.get(i);
+				}
+				
+				// at this point check whether the state list is valid
+				if (!validateStateList(list)) return false;
+
+				if (searchAlgorithm.equals("idastar") || searchAlgorithm.equals("oracle")) return true;
+
+				// save the optional <heuristic>
+				if (args.length >= 3) {
+
+					if (args[2].equals("gap")) heuristic = new GapHeuristic();
+					else if (args[2].equals("legacy")) heuristic = new LegacyHeuristic();
+					else if (args[2].equals("zero")) heuristic = new ZeroHeuristic();
+					else if (args[2].equals("pdb")) heuristic = loadPatternDatabase();
+					else return false;
+				}
+
+				// save the optional <threads> of hdastar
+				if (args.length == 4) {
+
+					try {
+						batchThreads = Integer.parseInt(args[3]);
+					}
+					catch (NumberFormatException e) {
+						return false;
+					}
+
+					if (batchThreads <= 0) return false;
+				}
+
+				// pack the list of the initial state and the final state
+				long packed = 0;
+				finalList = 0;
+
+				for (int i=0; i<N; i++) {
+					packed |= (long) (list.get(i) - 1) << (4*i);
+					finalList |= (long) i << (4*i);
+				}
+				initialState.setList(packed);
+				initialState.setHeuristic(heuristic.estimate(packed));
+
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * A method that loads the pattern database heuristic of N
+	 * 
+	 * @return the pattern database heuristic (the search stops if there is no pattern database for N)
+	 */
+	private static Heuristic loadPatternDatabase() {
+
+		try {
+			return new PatternDatabaseHeuristic();
+		}
+		catch (IOException e) {
+			System.out.print("No pattern database found for N=" + N + ", build it with:\njava PatternDatabase " + N + "\n");
+			System.exit(-4);
+			return null;
+		}
+	}
+
+
+	/**
+	 * A method that checks whether a state list is valid
+	 * 
+	 * @param list: ArrayList containing the integers of a state
+	 * @return true for a valid list - otherwise false
+	 */
+	private static boolean validateStateList(ArrayList<Integer> list) {
+
+		int occurances;
+		int N = list.size();
+
+		for (int i=0; i<N; i++) {
+
+			// check if each integer is between 1 and N
+			if (list.get(i) < 1 || list.get(i) > N) {
+				return false;
+			}
+
+			occurances = 0;	// occurances of an integer in the list
+
+			// check for duplicates of each integer
+			for (int j=0; j<N; j++) {
+
+				if(list.get(i) == list.get(j)) {
+					occurances++;
+				}
+			}
+			
+			if (occurances != 1) return false;
+		}
+
+		return true;
+	} 
+
+
+	/**
+	 * Main method implementing the general search algorithm
+	 * The states are kept in a NodeArena, so the search queue and the closed queue only hold the indices of the states.
+	 */
+	private static void search() {
+
+		int minState;
+
+		// the cost of a cached path can only be compared with g(n)+h(n) if h(n) never overestimates
+		boolean useCache = searchAlgorithm.equals("ucs") || heuristic.isAdmissible();
+		int[] cachedPath = useCache ? cache.getPath(initialState.getList()) : null;
+
+		if (cachedPath != null) {
+			extendedStates.add(initialState);
+			printSolution(appendPath(initialState, cachedPath));
+			return;
+		}
+
+		NodeArena arena = new NodeArena();	// every state of the search
+		int initial = arena.add(initialState.getList(), -1, 0, 0, initialState.getHeuristic());
+
+		BucketQueue searchQueue = new BucketQueue();	// searchQueue = metopo anazitisis
+		searchQueue.add(initial, 0, priority(0, initialState.getHeuristic()));	// STEP 1. add the initial state to the search queue
+		
+		NodeSet closedQueue = new NodeSet(arena);	// closed queue = kleisto sinolo (hash set of the extended states by their packed lists)
+
+
+		while (true) {
+
+			// STEP 2. empty search queue scenario
+			if (searchQueue.isEmpty()) {	
+				System.out.print("No final state has been found for the given initial state:\n" + initialState.getUnpackedList() + "\n");
+				System.exit(-2);
+			}
+
+			// STEP 3. select the state with the lowest priority as determined by the given <search algorithm> (ucs OR alphastar)
+			minState = searchQueue.poll();
+
+			// no state left in the search queue can lead to a path with a lower cost than the incumbent state and its cached path
+			if (incumbentState != -1 && priority(arena.getCost(minState), arena.getHeuristic(minState)) >= incumbentCost) {
+
+				cachedPath = cache.getPath(arena.getList(incumbentState));
+
+				if (cachedPath != null) {
+					State state = getState(arena, incumbentState);
+					extendedStates.add(state);
+					State finalState = appendPath(state, cachedPath);
+					printSolution(finalState);
+					cacheSolution(finalState);
+					break;
+				}
+
+				// part of the cached path has been removed, so the search goes on without an incumbent
+				incumbentState = -1;
+				incumbentCost = Integer.MAX_VALUE;
+			}
+
+			// STEP 4. check if the selected state has already been extended
+			if (!closedQueue.contains(arena.getList(minState))) {
+
+				// STEP 5. check if the selected state is a final state
+				if (arena.getList(minState) == finalList) {
+					State finalState = getState(arena, minState);
+					printSolution(finalState);
+					if (useCache) cacheSolution(finalState);
+					break;
+				}
+				// STEP 6. extend the selected state - add the new states to the search queue - add the selected state to the closed queue
+				else {
+					closedQueue.add(minState);
+					extendState(arena, minState, searchQueue, closedQueue, useCache);
+					extendCounter++;
+
+					// print the updated extend counter once every 1000 states have been extended to indicate that the program is still running
+					if (extendCounter%1000 == 0) System.out.print("\rSearching . . . " + extendCounter + " extends so far");
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * A method responsible for extending the selected state
+	 * New states that have already been extended are not added to the search queue.
+	 * 
+	 * @param arena: the states of the search
+	 * @param state: the index of the selected state to be extended and removed from the search queue
+	 * @param searchQueue: the search queue (metopo anazitisis)
+	 * @param closedQueue: the closed queue (kleisto sinolo)
+	 * @param useCache: true to look the new states up in the solution cache
+	 */
+	private static void extendState(NodeArena arena, int state, BucketQueue searchQueue, NodeSet closedQueue, boolean useCache) {
+
+		long stateList = arena.getList(state);
+		int cost = arena.getCost(state) + 1;
+		long list;
+
+		// apply the transition operators T(k) where 1<k<=N
+		for (int k=2; k<=N; k++) {
+
+			list = State.reverse(stateList, k);
+
+			// the new state has already been extended (e.g. T(k) applied twice returns to the same state)
+			if (closedQueue.contains(list)) continue;
+
+			int transitionHeuristic = heuristic.update(stateList, arena.getHeuristic(state), k);	// h(n) of the new state based on h(n) of the selected state
+			int transition = arena.add(list, state, k, cost, transitionHeuristic);	// create a new state for each T(k)
+
+			searchQueue.add(transition, cost, priority(cost, transitionHeuristic));
+			statesCounter++;
+
+			// a cached state gives a path to a final state, which becomes the incumbent if it has the lowest cost so far
+			if (useCache) {
+
+				int distance = cache.getDistance(list);
+
+				if (distance != SolutionCache.MISSING && cost + distance < incumbentCost) {
+					incumbentState = transition;
+					incumbentCost = cost + distance;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * A method that creates the State objects of the path from the initial state to a state of a NodeArena,
+	 * adding every one of them but the last to the extended states (for printSolution())
+	 * 
+	 * @param arena: the states of the search
+	 * @param state: the index of the state
+	 * @return the State of the state
+	 */
+	private static State getState(NodeArena arena, int state) {
+
+		ArrayList<Integer> path = new ArrayList<Integer>();
+
+		for (int i=state; arena.getParent(i) != -1; i=arena.getParent(i)) {
+			path.add(0, i);
+		}
+
+		State current = initialState;
+
+		for (int i : path) {
+
+			extendedStates.add(current);
+
+			State transition = new State();
+			transition.setList(arena.getList(i));
+			transition.setCost(arena.getCost(i));
+			transition.setParent(extendedStates.size()-1);
+			transition.setTransitionOperator((byte) arena.getTransitionOperator(i));
+			transition.setHeuristic(arena.getHeuristic(i));
+
+			current = transition;
+		}
+		return current;
+	}
+
+
+	/**
+	 * Main method implementing the bidirectional algorithm (bidirectional ucs)
+	 * Since the final state is known and every T(k) is its own inverse, the search runs forward from the initial state
+	 * and backward from the final state at the same time, one level (cost) of the smaller side at a time.
+	 * Every new state is checked against the states reached by the other side, which gives a path (meeting).
+	 * The search stops once no path through the states that have not been extended yet can have a lower cost
+	 * than the best meeting: such a path costs at least the cost of the forward level + the cost of the backward level + 1.
+	 * The states of each side are kept in a NodeArena, where a level is the run of states added after the level before it.
+	 */
+	private static void bidirectional() {
+
+		NodeArena forwardArena = new NodeArena();	// states reached from the initial state
+		NodeArena backwardArena = new NodeArena();	// states reached from the final state
+		NodeSet forwardReached = new NodeSet(forwardArena);
+		NodeSet backwardReached = new NodeSet(backwardArena);
+		int forwardLevel = 0;	// the first state of the forward level to be extended (the level runs to the end of the arena)
+		int backwardLevel = 0;	// the first state of the backward level to be extended
+		int forwardCost = 0;	// g(n) of the forward level
+		int backwardCost = 0;	// g(n) of the backward level
+		int bestCost = Integer.MAX_VALUE;	// cost of the best meeting so far
+		int forwardMeeting = -1;	// the forward state of the best meeting
+		int backwardMeeting = -1;	// the backward state of the best meeting
+
+		forwardReached.add(forwardArena.add(initialState.getList(), -1, 0, 0, 0));
+		backwardReached.add(backwardArena.add(finalList, -1, 0, 0, 0));
+		statesCounter++;
+
+		if (isFinalState(initialState)) {
+			bestCost = 0;
+			forwardMeeting = 0;
+			backwardMeeting = 0;
+		}
+
+		// stopping condition
+		while (bestCost > forwardCost + backwardCost + 1 && forwardLevel < forwardArena.size() && backwardLevel < backwardArena.size()) {
+
+			// extend the smaller level
+			boolean forward = forwardArena.size() - forwardLevel <= backwardArena.size() - backwardLevel;
+			NodeArena arena = forward ? forwardArena : backwardArena;
+			NodeArena otherArena = forward ? backwardArena : forwardArena;
+			NodeSet reached = forward ? forwardReached : backwardReached;
+			NodeSet otherReached = forward ? backwardReached : forwardReached;
+			int levelEnd = arena.size();	// the new states are added after the level
+
+			for (int state = forward ? forwardLevel : backwardLevel; state < levelEnd; state++) {
+
+				int cost = arena.getCost(state) + 1;
+				extendCounter++;
+
+				// apply the transition operators T(k) where 1<k<=N
+				for (int k=2; k<=N; k++) {
+
+					long list = State.reverse(arena.getList(state), k);
+
+					if (reached.contains(list)) continue;
+
+					int transition = arena.add(list, state, k, cost, 0);
+
+					reached.add(transition);
+					statesCounter++;
+
+					// meeting check
+					int other = otherReached.get(list);
+
+					if (other != -1 && cost + otherArena.getCost(other) < bestCost) {
+						bestCost = cost + otherArena.getCost(other);
+						forwardMeeting = forward ? transition : other;
+						backwardMeeting = forward ? other : transition;
+					}
+				}
+			}
+
+			if (forward) {
+				forwardLevel = levelEnd;
+				forwardCost++;
+			}
+			else {
+				backwardLevel = levelEnd;
+				backwardCost++;
+			}
+
+			if (extendCounter >= 1000) System.out.print("\rSearching . . . " + extendCounter + " extends so far");
+		}
+
+		if (forwardMeeting == -1) {
+			System.out.print("No final state has been found for the given initial state:\n" + initialState.getUnpackedList() + "\n");
+			System.exit(-2);
+		}
+
+		// append the backward part of the path to the forward part, applying the same T(k) in the opposite direction
+		State state = getState(forwardArena, forwardMeeting);
+
+		for (int backwardState = backwardMeeting; backwardArena.getParent(backwardState) != -1; backwardState = backwardArena.getParent(backwardState)) {
+
+			extendedStates.add(state);
+
+			State transition = new State();
+			transition.setList(backwardArena.getList(backwardArena.getParent(backwardState)));
+			transition.setCost(state.getCost() + 1);
+			transition.setParent(extendedStates.size()-1);
+			transition.setTransitionOperator((byte) backwardArena.getTransitionOperator(backwardState));
+
+			state = transition;
+		}
+
+		printSolution(state);
+	}
+
+
+	/**
+	 * Main method implementing the hdastar algorithm (hash distributed alphastar)
+	 * alphastar is run on a number of threads (the number of processors by default), each one extending the states it owns (see ParallelSearch).
+	 */
+	private static void hdastar() {
+
+		ParallelSearch parallelSearch = new ParallelSearch(batchThreads);
+		ArrayList<State> path = null;
+
+		System.out.print("Searching on " + batchThreads + " threads . . .");
+
+		try {
+			path = parallelSearch.search(initialState);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		extendCounter += parallelSearch.getExtendCounter();
+		statesCounter += parallelSearch.getStatesCounter();
+
+		if (path == null) {
+			System.out.print("No final state has been found for the given initial state:\n" + initialState.getUnpackedList() + "\n");
+			System.exit(-2);
+		}
+
+		// link the states of the path for printSolution()
+		for (int i=0; i<path.size(); i++) {
+
+			State state = path.get(i);
+
+			state.setCost(i);
+			state.setParent(i-1);
+			extendedStates.add(state);
+		}
+
+		printSolution(path.get(path.size()-1));
+	}
+
+
+	/**
+	 * Main method implementing the external algorithm (breadth first iterative deepening A* on the disk, see ExternalSearch)
+	 * The layers of the search are written to a temporary directory of the working directory, which is deleted once the search ends.
+	 */
+	private static void external() {
+
+		int[] path = null;
+		File directory = null;
+		String error = null;
+
+		try {
+			directory = Files.createTempDirectory(Paths.get(""), "external").toFile();
+
+			ExternalSearch externalSearch = new ExternalSearch(initialState.getList(), directory);
+
+			try {
+				path = externalSearch.solve();
+			}
+			finally {
+				extendCounter += externalSearch.getExtendCounter();
+				statesCounter += externalSearch.getStatesCounter();
+			}
+		}
+		catch (IOException e) {
+			error = e.getMessage();
+		}
+		finally {
+			if (directory != null && !directory.delete()) System.out.print("\nThe directory " + directory + " could not be deleted\n");
+		}
+
+		if (error != null) {
+			System.out.print("\nThe external search has failed: " + error + "\n");
+			System.exit(-4);
+		}
 
+		if (path == null) {
+			System.out.print("No final state has been found for the given initial state:\n" + initialState.getUnpackedList() + "\n");
+			System.exit(-2);
+		}
 
-class State {
+		printPath(path, path.length);
+	}
 
 
-	private ArrayList<Integer> list = new ArrayList<Integer>();
-	private State parent = null;
-	private String transitionOperator;	// telestis metavasis
-	private int cost;	// g(n)
+	/**
+	 * Main method implementing the frontier algorithm (breadth first heuristic search without a closed queue, see FrontierSearch)
+	 */
+	private static void frontier() {
 
-	public ArrayList<Integer> getList() {
-		return this.list;
-	}
+		FrontierSearch frontierSearch = new FrontierSearch(initialState.getList());
+		int[] path = frontierSearch.solve();
 
-	public State getParent() {
-		return this.parent;
-	}
+		extendCounter += frontierSearch.getExtendCounter();
+		statesCounter += frontierSearch.getStatesCounter();
 
-	public String getTransitionOperator() {
-		return this.transitionOperator;
+		printPath(path, path.length);
 	}
 
-	public int getCost() {
-		return this.cost;
-	}
 
-	public void setParent(State Parent) {
-		this.parent = Parent;
-	}
+	/**
+	 * Main method implementing the batch mode
+	 * Every line of the instances is solved with idastar (see IdaStar) on a pool of threads, so a single JVM solves any number of lists.
+	 * The result of each line is printed as soon as it is solved, so the results are not in the order of the lines.
+	 */
+	private static void batch() {
 
-	public void setTransitionOperator(String Operator) {
-		this.transitionOperator = Operator;
-	}
+		ExecutorService pool = Executors.newFixedThreadPool(batchThreads);
 
-	public void setCost(int Cost) {
-		this.cost = Cost;
-	}
+		if (batchFormat.equals("csv")) System.out.println("line,instance,status,cost,path,extends,states,time");
 
-	/* 
-		Override necessary for STEP 4 in method search().
-		We want contains() to return true as long as two State classes have the same list
-		in order to check whether a state is part of the closed queue or not.
-	*/
-	@Override
-	public boolean equals(Object o) {
+		try (BufferedReader reader = new BufferedReader(batchInstances.equals("-") ? new InputStreamReader(System.in) : new FileReader(batchInstances))) {
 
-		if (this == o) {
-			return true;
+			String instance;
+			int lineNumber = 0;
+
+			while ((instance = reader.readLine()) != null) {
+
+				lineNumber++;
+				instance = instance.trim();
+
+				if (instance.isEmpty()) continue;
+
+				int number = lineNumber;
+				String text = instance;
+
+				pool.execute(() -> System.out.println(solveInstance(number, text)));
+			}
 		}
-		if (o == null || getClass() != o.getClass()) {
-			return false;
+		catch (IOException e) {
+			System.out.print("The instances could not be read: " + e.getMessage() + "\n");
+			pool.shutdownNow();
+			System.exit(-5);
 		}
 
-		State state = (State) o;
-        
-		return this.list.equals(state.getList());
+		pool.shutdown();
+
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
-}
 
 
-class Search {
-    
+	/**
+	 * Main method implementing the server mode
+	 * The lists are solved the same way as in the batch mode, but by a JVM that keeps running between them,
+	 * so only the first lists pay for the start of the JVM and the compilation of the search.
+	 * Only connections from the local machine are accepted. Every connection is served by a thread of the pool
+	 * and gets one result line (in the batch format) for every line it sends, in the same order.
+	 */
+	private static void server() {
 
-	public static String searchAlgorithm;
-	public static State initialState;
-	public static int N;
-	public static int extendCounter = 0;
-	public static int statesCounter = 1; 
-	public static String line = "=====================================================\n";
+		ExecutorService pool = Executors.newFixedThreadPool(batchThreads);
+
+		try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+
+			System.out.print("Listening on " + serverSocket.getInetAddress().getHostAddress() + ":" + port + "\n");
+
+			while (true) {
+
+				Socket socket = serverSocket.accept();
+
+				pool.execute(() -> serve(socket));
+			}
+		}
+		catch (IOException e) {
+			System.out.print("The server could not be started: " + e.getMessage() + "\n");
+			pool.shutdownNow();
+			System.exit(-5);
+		}
+	}
 
 
 	/**
-	 * A method that checks whether the command line arguments are valid
+	 * A method that serves a connection of the server mode until it is closed
 	 * 
-	 * @param args: array of command line args
-	 * @return true for valid args - otherwise false
+	 * @param socket: the connection
 	 */
-	private static boolean validateArgs(String[] args) {
+	private static void serve(Socket socket) {
 
-		if (args.length == 2) {
+		try (socket;
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				PrintWriter writer = new PrintWriter(socket.getOutputStream(), true)) {
 
-			if (args[0].equals("ucs") || args[0].equals("alphastar")) {
+			String instance;
+			int lineNumber = 0;
 
-				searchAlgorithm = args[0];	// save <search algorithm>
-				
-				initialState = new State();	// new State object for the inital state
-				initialState.setCost(0);	// cost g(n) of the initial state is 0
-				initialState.setTransitionOperator("Initial State");	// no transition operator for the inital state (telestis metavasis)
-				String[] temp = args[1].split(",");	// temporarily split the <initial state> sequence to an array of strings
-				N = temp.length;	// the total number of ints N is equal to the length of the array
+			while ((instance = reader.readLine()) != null) {
 
-				// transfer the temp array to the ArrayList<Integer> of the initial state object
-				for (int i=0; i<N; i++) {
-					initialState.getList().add(Integer.parseInt(temp[i]));
-				}
-				
-				// at this point check whether the state list is valid
-				return validateStateList(initialState.getList());
+				lineNumber++;
+				instance = instance.trim();
+
+				if (instance.isEmpty()) continue;
+
+				writer.println(solveInstance(lineNumber, instance));
 			}
 		}
-		return false;
+		catch (IOException e) {
+			// the client closed the connection
+		}
 	}
 
 
 	/**
-	 * A method that checks whether a state list is valid
-	 * 
-	 * @param list: ArrayList containing the integers of a state
-	 * @return true for a valid list - otherwise false
+	 * Main method implementing the client mode
+	 * Sends the <initial state> to the server and prints the result.
 	 */
-	private static boolean validateStateList(ArrayList<Integer> list) {
+	private static void client() {
 
-		int occurances;
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				PrintWriter writer = new PrintWriter(socket.getOutputStream(), true)) {
 
-		for (int i=0; i<N; i++) {
+			writer.println(batchInstances);
+			socket.shutdownOutput();
 
-			// check if each integer is between 1 and N
-			if (list.get(i) < 1 || list.get(i) > N) {
-				return false;
+			String result;
+
+			while ((result = reader.readLine()) != null) {
+				System.out.println(result);
 			}
+		}
+		catch (IOException e) {
+			System.out.print("No server found on port " + port + ", start it with:\njava Search server " + port + "\n");
+			System.exit(-6);
+		}
+	}
 
-			occurances = 0;	// occurances of an integer in the list
 
-			// check for duplicates of each integer
-			for (int j=0; j<N; j++) {
+	/**
+	 * A method that solves a line of the batch mode (or the server mode)
+	 * 
+	 * @param lineNumber: the number of the line in the instances
+	 * @param instance: the line, an <initial state>
+	 * @return the result of the line in the batch format
+	 */
+	private static String solveInstance(int lineNumber, String instance) {
 
-				if(list.get(i) == list.get(j)) {
-					occurances++;
-				}
+		long start = System.nanoTime();
+		ArrayList<Integer> list = new ArrayList<Integer>();
+
+		try {
+			for (String item : instance.split(",")) {
+				list.add(Integer.parseInt(item.trim()));
 			}
-			
-			if (occurances != 1) return false;
+		}
+		catch (NumberFormatException e) {
+			return formatResult(lineNumber, instance, "invalid", null, null, 0);
 		}
 
-		return true;
-	} 
+		if (!validateStateList(list)) {
+			return formatResult(lineNumber, instance, "invalid", null, null, 0);
+		}
+
+		int[] initialList = new int[list.size()];
+
+		for (int i=0; i<initialList.length; i++) {
+			initialList[i] = list.get(i);
+		}
+
+		IdaStar idaStar = new IdaStar(initialList, batchTimeout, false, cache);
+		int[] path = idaStar.solve();
+
+		return formatResult(lineNumber, instance, (path == null) ? "timeout" : "solved", path, idaStar, (System.nanoTime() - start) / 1000000);
+	}
 
 
 	/**
-	 * Main method implementing the general search algorithm
+	 * A method that formats the result of a line of the batch mode (or the server mode) as a csv line or a json line
+	 * 
+	 * @param lineNumber: the number of the line in the instances
+	 * @param instance: the line
+	 * @param status: solved OR timeout OR invalid
+	 * @param path: the transition operators of the solution path (null if not solved)
+	 * @param idaStar: the search of the line (null if invalid)
+	 * @param time: the time the line took in ms
+	 * @return the formatted result
 	 */
-	private static void search() {
+	private static String formatResult(int lineNumber, String instance, String status, int[] path, IdaStar idaStar, long time) {
 
-		State minState = null;
+		String cost = (path == null) ? "" : String.valueOf(path.length);
+		long extendCounter = (idaStar == null) ? 0 : idaStar.getExtendCounter();
+		long statesCounter = (idaStar == null) ? 0 : idaStar.getStatesCounter();
+		StringBuilder operators = new StringBuilder();
 
-		ArrayList<State> searchQueue = new ArrayList<State>();	// searchQueue = metopo anazitisis
-		searchQueue.add(initialState);	// STEP 1. add the initial state to the search queue
-		
-		ArrayList<State> closedQueue = new ArrayList<State>();	// closed queue = kleisto sinolo
+		for (int i=0; path != null && i<path.length; i++) {
+			if (i > 0) operators.append(",");
+			operators.append(path[i]);
+		}
 
+		if (batchFormat.equals("json")) {
 
-		while (true) {
+			return "{\"line\":" + lineNumber + ",\"instance\":\"" + escapeJson(instance) + "\",\"status\":\"" + status + "\"" +
+					",\"cost\":" + ((path == null) ? "null" : cost) + ",\"path\":" + ((path == null) ? "null" : "[" + operators + "]") +
+					",\"extends\":" + extendCounter + ",\"states\":" + statesCounter + ",\"time\":" + time + "}";
+		}
 
-			// STEP 2. empty search queue scenario
-			if (searchQueue.isEmpty()) {	
-				System.out.print("No final state has been found for the given initial state:\n" + initialState.getList() + "\n");
-				System.exit(-2);
-			}
+		return lineNumber + ",\"" + instance.replace("\"", "\"\"") + "\"," + status + "," + cost + ",\"" + operators + "\"," +
+				extendCounter + "," + statesCounter + "," + time;
+	}
 
-			// STEP 3. apply the given <search algorithm> (ucs OR alphastar)
-			if (searchAlgorithm.equals("ucs")) {
-				minState = ucs(searchQueue);
-			}
-			else if (searchAlgorithm.equals("alphastar")) {
-				minState = alphastar(searchQueue);
-			}
-			else {
-				System.out.print("An unexpected error has occured");
-				System.exit(-3);
-			}
 
-			// STEP 4. check if the selected state has already been extended
-			if (!closedQueue.contains(minState)) {
+	/**
+	 * @return the text with the characters that are not allowed in a json string escaped
+	 */
+	private static String escapeJson(String text) {
 
-				// STEP 5. check if the selected state is a final state
-				if (isFinalState(minState)) {
-					printSolution(minState);
+		StringBuilder escaped = new StringBuilder();
+
+		for (char c : text.toCharArray()) {
+
+			if (c == '"' || c == '\\') escaped.append('\\').append(c);
+			else if (c < ' ') escaped.append(String.format("\\u%04x", (int) c));
+			else escaped.append(c);
+		}
+		return escaped.toString();
+	}
+
+
+	/**
+	 * Main method implementing the oracle algorithm
+	 * The cost of every list of N ints is looked up in the distance oracle of N (see DistanceOracle), which is built the first time.
+	 * A path with the lowest cost is then found by always applying a T(k) that lowers the cost by 1 (greedy descent),
+	 * which takes at most N-1 lookups for every transition operator of the path.
+	 */
+	private static void oracle() {
+
+		DistanceOracle oracle = null;
+
+		try {
+			oracle = new DistanceOracle(N);
+		}
+		catch (IOException e) {
+			System.out.print("The distance oracle of N=" + N + " could not be loaded: " + e.getMessage() + "\n");
+			System.exit(-4);
+		}
+
+		int[] list = initialList.clone();
+		int cost = oracle.distance(list);
+		int[] path = new int[cost];
+
+		for (int i=0; i<path.length; i++) {
+
+			extendCounter++;
+
+			// apply the transition operators T(k) where 1<k<=N until the cost is lowered
+			for (int k=2; k<=N; k++) {
+
+				Lists.reverse(list, k);
+				statesCounter++;
+
+				if (oracle.distance(list) == cost-1) {
+					path[i] = k;
+					cost--;
 					break;
 				}
-				// STEP 6. extend the selected state - add the new states to the search queue - add the selected state to the closed queue
-				else {
-					extendState(minState, searchQueue);
-					closedQueue.add(minState);
-					extendCounter++;
 
-					// DEBUG - print a dot once every 1000 states have been extended to indicate that the program is still running
-					//if (extendCounter%1000 == 0 ) System.out.print(".");
-					// or just constantly print the updated extend counter
-					System.out.print("\rSearching . . . " + extendCounter + " extends so far");
-				}
+				Lists.reverse(list, k);	// undo T(k)
 			}
 		}
+
+		printPath(path, path.length);
 	}
 
 
 	/**
-	 * A method responsible for extending the selected state
+	 * Main method implementing the idastar algorithm (iterative deepening A*, see IdaStar)
+	 */
+	private static void idastar() {
+
+		IdaStar idaStar = new IdaStar(initialList, 0, true, cache);
+		int[] path = idaStar.solve();
+
+		extendCounter += idaStar.getExtendCounter();
+		statesCounter += idaStar.getStatesCounter();
+
+		printPath(path, path.length);
+	}
+
+
+	/**
+	 * A method that prints the solution path of idastar (or oracle, external or frontier) when a final state has been found
 	 * 
-	 * @param state: the selected state to be extended and removed from the search queue
-	 * @param searchQueue: the search queue (metopo anazitisis)
+	 * @param path: the transition operators of the solution path
+	 * @param length: the number of transition operators
 	 */
-	private static void extendState(State state, ArrayList<State> searchQueue) {
+	private static void printPath(int[] path, int length) {
 
-		State transition;
+		int[] list = initialList.clone();
 
-		// apply the transition operators T(k) where 1<k<=N
-		for (int i=1; i<N; i++) {
+		System.out.print("\n" + line);
 
-			transition = new State();	// create a new state for each T(k)
+		for (int i=0; i<=length; i++) {
 
-			transition.setCost(state.getCost() + 1);
-			transition.setParent(state);
-			transition.setTransitionOperator("T(" + (i+1) + ")");
+			if (i > 0) Lists.reverse(list, path[i-1]);
 
-			// integers from 1 to k are reversed and added to the list of the new state
-			for (int j=0; j<=i; j++) {
-				transition.getList().add(state.getList().get(i-j));
-			}
+			// print state number + state cost + state list + transition operator
+			String message = "State: " + (i+1) + 
+											"\tCost: " + i + "\t\t" + 
+											Arrays.toString(list) + "\t" + 
+											((i == 0) ? "Initial State" : "T(" + path[i-1] + ")");
 
-			// integers from k+1 to N are unchanged and added to the list of the new state
-			for (int j=i+1; j<N; j++) {
-				transition.getList().add(state.getList().get(j));
-			}
+			System.out.println(message);
+		}
 
-			searchQueue.add(transition);
-			statesCounter++;
+		System.out.print("\nTotal states: " + statesCounter + "\tExtends: " + extendCounter + "\n");
+
+		if (searchAlgorithm.equals("external") && !heuristic.isAdmissible()) {
+			System.out.print("The heuristic is not admissible, a path with a lower cost may exist\n");
 		}
+
+		System.out.print(line);
 	}
 
 
@@ -259,10 +2971,10 @@ class Search {
 		ArrayList<State> solutionPath = new ArrayList<State>();
 
 		// find the solution path 
-		while (state.getParent() != null) {
+		while (state.getParent() != -1) {
 
 			solutionPath.add(state);	// add the current state to the solution path
-			state = state.getParent();	// move to the parent
+			state = extendedStates.get(state.getParent());	// move to the parent
 		}
 
 		// finally add the inital state to the solution path
@@ -276,139 +2988,132 @@ class Search {
 			// print state number + state cost + state list + transition operator
 			String message = "State: " + (solutionPath.size()-i) + 
 											"\tCost: " + String.valueOf(solutionPath.get(i).getCost()) + "\t\t" + 
-											solutionPath.get(i).getList() + "\t" + 
-											solutionPath.get(i).getTransitionOperator();
+											solutionPath.get(i).getUnpackedList() + "\t" + 
+											solutionPath.get(i).getTransitionOperatorName();
 
 			System.out.println(message);
 		}
 
-		System.out.print("\nTotal states: " + statesCounter + "\tExtends: " + extendCounter + "\n" + line);
+		System.out.print("\nTotal states: " + statesCounter + "\tExtends: " + extendCounter + "\n");
+
+		if ((searchAlgorithm.equals("alphastar") || searchAlgorithm.equals("hdastar")) && !heuristic.isAdmissible()) {
+			System.out.print("The heuristic is not admissible, a path with a lower cost may exist\n");
+		}
+
+		System.out.print(line);
 	}
 
 
 	/**
-	 * A method responsible for determining whether a state is a final state or not
+	 * A method that adds the states of a path to the extended states after a given state (used for cached paths)
 	 * 
-	 * @param state: the selected state
-	 * @return true if the state parameter is a final state - otherwise false
+	 * @param state: the state the path starts from, it must be the last of the extended states
+	 * @param path: the transition operators of the path
+	 * @return the last state of the path
 	 */
-	private static boolean isFinalState(State state) {
+	private static State appendPath(State state, int[] path) {
 
-		for (int i=0; i<N; i++) {
+		for (int i=0; i<path.length; i++) {
 
-			if (state.getList().get(i) != (i+1)) {
-				return false;
-			}
+			if (i > 0) extendedStates.add(state);
+
+			State transition = new State();
+			transition.setList(State.reverse(state.getList(), path[i]));
+			transition.setCost(state.getCost() + 1);
+			transition.setParent(extendedStates.size()-1);
+			transition.setTransitionOperator((byte) path[i]);
+
+			state = transition;
 		}
-		return true;
+		return state;
 	}
 
 
 	/**
-	 * A method that implements the ucs algorithm
-	 * determines the state with the lowest cost g(n) in the search queue
+	 * A method that adds the solution path of search() (or of a cached path) to the solution cache
 	 * 
-	 * @param searchQueue: the search queue (metopo anazitisis)
-	 * @return a State object which is the selected state by the algorithm
+	 * @param state: the final state of the solution path
 	 */
-	private static State ucs(ArrayList<State> searchQueue) {
-		
-		State minState;
-		int minCost = searchQueue.get(0).getCost();	// start from the leftmost state in the search queue
-		int statePosition = 0;
+	private static void cacheSolution(State state) {
 
-		// run the search queue and check if there is a state with a lower cost
-		for (int i=0; i<searchQueue.size(); i++) {
+		ArrayList<Integer> path = new ArrayList<Integer>();
 
-			if (searchQueue.get(i).getCost() < minCost) {
-				minCost = searchQueue.get(i).getCost();
-				statePosition = i;
-			}
+		while (state.getParent() != -1) {
+			path.add(0, (int) state.getTransitionOperator());
+			state = extendedStates.get(state.getParent());
 		}
 
-		// the selected state is removed from the search queue and then returned
-		minState = searchQueue.get(statePosition);
-		searchQueue.remove(statePosition);
-		
-		return minState;
+		int[] operators = new int[path.size()];
+
+		for (int i=0; i<operators.length; i++) {
+			operators[i] = path.get(i);
+		}
+		cache.putPath(initialState.getList(), operators);
 	}
 
 
 	/**
-	 * A method that implements the alphastar algorithm
-	 * determines the state with the min(g(n)+h(n)) in the search queue
+	 * A method responsible for determining whether a state is a final state or not
 	 * 
-	 * @param searchQueue: the search queue (metopo anazitisis)
-	 * @return a State object which is the selected state by the algorithm
+	 * @param state: the selected state
+	 * @return true if the state parameter is a final state - otherwise false
 	 */
-	private static State alphastar(ArrayList<State> searchQueue) {
-
-		
-		State minState;
-		// start from the leftmost state in the search queue 
-		int min = searchQueue.get(0).getCost() + heuristic(searchQueue.get(0).getList());
-		int statePosition = 0;
-		int heuristic;
-		String message;
+	private static boolean isFinalState(State state) {
 
-		System.out.println();	// comment this for faster execution
+		return state.getList() == finalList;
+	}
 
-		// run the search queue and find the state with the min(g(n)+h(n))
-		for (int i=0; i<searchQueue.size(); i++) {
 
-			heuristic = heuristic(searchQueue.get(i).getList());
-			
-			if ((searchQueue.get(i).getCost() + heuristic) < min) {
-				min = searchQueue.get(i).getCost() + heuristic;
-				statePosition = i;
-			}
-			
-			message = "DEBUG: list: " + searchQueue.get(i).getList()  + 
-								"\th(n)=" + heuristic +
-								"  g(n)=" + searchQueue.get(i).getCost() +
-								"\t\tg(n)+h(n)=" + (searchQueue.get(i).getCost() + heuristic);
+	/**
+	 * A method that determines the priority of a state in the search queue for the given <search algorithm>
+	 * 
+	 * @param cost: g(n) of the state to be added to the search queue
+	 * @param heuristic: h(n) of the state to be added to the search queue
+	 * @return the priority of the state (the state with the lowest priority is selected first)
+	 */
+	private static int priority(int cost, int heuristic) {
 
-			System.out.println(message);	// comment this for faster execution
+		if (searchAlgorithm.equals("ucs")) {
+			return ucs(cost);
+		}
+		else if (searchAlgorithm.equals("alphastar")) {
+			return alphastar(cost, heuristic);
+		}
+		else {
+			System.out.print("An unexpected error has occured");
+			System.exit(-3);
+			return -1;
 		}
-		
-		// the selected state is removed from the search queue and then returned
-		minState = searchQueue.get(statePosition);
-		searchQueue.remove(statePosition);
-
-		// comment this for faster execution
-		System.out.println("> selected state:" + minState.getList() + "\tmin(g(n)+h(n)):" + min + "\n");
-
-		return minState;
 	}
 
 
 	/**
-	 * A method that implements the heuristic function for a given state list
+	 * A method that implements the ucs algorithm
+	 * the state with the lowest cost g(n) in the search queue is selected
 	 * 
-	 * @param list: ArrayList containing the integers of a state
-	 * @return h(n)
+	 * @param cost: g(n) of a state of the search queue
+	 * @return g(n)
 	 */
-	private static int heuristic(ArrayList<Integer> list) {
+	private static int ucs(int cost) {
+		
+		return cost;
+	}
 
-		int heuristic = 0;
 
-		// run the list excluding the first item
-		for (int i=1; i<N; i++) {
+	/**
+	 * A method that implements the alphastar algorithm
+	 * the state with the min(g(n)+h(n)) in the search queue is selected
+	 * 
+	 * @param cost: g(n) of a state of the search queue
+	 * @param heuristic: h(n) of the state
+	 * @return g(n)+h(n)
+	 */
+	private static int alphastar(int cost, int heuristic) {
 
-			// if any given list item is not at the expected position for a final state
-			if (list.get(i) != (i+1)) {
-				
-				if (heuristic == 0) heuristic++;	// at least one transition operation is required
-				
-				// check descending order with previous list item
-				if (list.get(i-1) > list.get(i) && list.get(i-1) != (list.get(i)+1)) heuristic++;
-			}
-		}
-		return heuristic;
+		return cost + heuristic;
 	}
 
 
-
     public static void main(String[] args) {
 		
 
@@ -416,19 +3121,76 @@ class Search {
 		if (!validateArgs(args)) {
 			String message = "Invalid args!\n\n" +
 											"run command:\n" +
-											"java ask1 <search algorithm> <initial state>\n\n" +
-											"<search algorithm>: ucs OR alphastar\n" +
-											"<initial state>: shuffled sequence of ints from 1 to N split by a comma (N is the total number of ints) (duplicate values are not allowed)\n\n" +
+											"java ask1 <search algorithm> <initial state> [<heuristic>]\n" +
+											"java ask1 hdastar <initial state> [<heuristic> [<threads>]]\n" +
+											"java ask1 batch <instances> [<threads> [<timeout> [<format>]]]\n" +
+											"java ask1 server [<port> [<threads> [<timeout> [<format>]]]]\n" +
+											"java ask1 client <initial state> [<port>]\n\n" +
+											"<search algorithm>: ucs OR alphastar OR idastar OR bidirectional OR oracle OR hdastar OR external OR frontier\n" +
+											"<initial state>: shuffled sequence of ints from 1 to N split by a comma (N is the total number of ints, at most 16 except for idastar, at most 11 for oracle) (duplicate values are not allowed)\n" +
+											"<heuristic> (optional, alphastar, hdastar and external only): gap (default) OR legacy OR zero OR pdb (built with: java PatternDatabase <N>)\n" +
+											"<instances>: a file with one <initial state> per line OR - to read them from the standard input\n" +
+											"<threads> (optional): the number of lists solved at the same time (the threads of the search for hdastar), the number of processors by default\n" +
+											"<timeout> (optional): the time limit of each list in ms, 0 (no time limit) by default\n" +
+											"<format> (optional): csv (default) OR json\n" +
+											"<port> (optional): 7878 by default\n\n" +
 											"run examples:\n" +
 											"java ask1 ucs 4,3,5,2,1\n" +
-											"java ask1 alphastar 4,3,5,2,1\n";
+											"java ask1 alphastar 4,3,5,2,1\n" +
+											"java ask1 alphastar 4,3,5,2,1 legacy\n" +
+											"java ask1 alphastar 4,3,5,2,1 pdb\n" +
+											"java ask1 idastar 4,3,5,2,1\n" +
+											"java ask1 bidirectional 4,3,5,2,1\n" +
+											"java ask1 oracle 4,3,5,2,1\n" +
+											"java ask1 hdastar 4,3,5,2,1\n" +
+											"java ask1 hdastar 4,3,5,2,1 gap 4\n" +
+											"java ask1 external 4,3,5,2,1\n" +
+											"java ask1 frontier 4,3,5,2,1\n" +
+											"java ask1 batch instances.txt 4 10000 json\n" +
+											"java ask1 server 7878 4 10000 json\n" +
+											"java ask1 client 4,3,5,2,1 7878\n";
 			
 			System.out.print(line+message+line);
 			System.exit(-1);
 		}
 		
 		
-		search();
+		// keep the solutions found between runs if the solution cache is saved to a file (only the modes that use it)
+		if (searchAlgorithm.equals("ucs") || searchAlgorithm.equals("alphastar") || searchAlgorithm.equals("idastar") || searchAlgorithm.equals("batch") || searchAlgorithm.equals("server")) {
+			cache = SolutionCache.load();
+			Runtime.getRuntime().addShutdownHook(new Thread(cache::save));
+		}
+
+		if (searchAlgorithm.equals("idastar")) {
+			idastar();
+		}
+		else if (searchAlgorithm.equals("bidirectional")) {
+			bidirectional();
+		}
+		else if (searchAlgorithm.equals("oracle")) {
+			oracle();
+		}
+		else if (searchAlgorithm.equals("hdastar")) {
+			hdastar();
+		}
+		else if (searchAlgorithm.equals("external")) {
+			external();
+		}
+		else if (searchAlgorithm.equals("frontier")) {
+			frontier();
+		}
+		else if (searchAlgorithm.equals("batch")) {
+			batch();
+		}
+		else if (searchAlgorithm.equals("server")) {
+			server();
+		}
+		else if (searchAlgorithm.equals("client")) {
+			client();
+		}
+		else {
+			search();
+		}
 
 
 	}